@@ -0,0 +1,1079 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Zettengenerator die met bitborden werkt. Het resultaat is hetzelfde als dat
+ * van de eu.debooy.caissa.Zettengenerator maar er wordt niet meer met een
+ * gedraaid bord gewerkt en de aanvallen worden met de tabellen uit
+ * eu.debooy.caissa.Bitborden bepaald.
+ *
+ * De schaakgevende stukken en de gepende stukken worden één keer per stelling
+ * bepaald. Staat de koning schaak dan mogen de andere stukken enkel naar de
+ * velden die het schaak opheffen. Een gepend stuk blijft op de lijn van de
+ * penning en de koning gaat niet naar een veld dat de tegenstander aanvalt.
+ * Enkel bij en passant wordt de zet nog uitgevoerd om te zien of de koning
+ * schaak staat. De torens voor de rokade komen uit de FEN zodat ook Chess960
+ * stellingen zonder extra instelling werken.
+ *
+ * De zetten worden als eu.debooy.caissa.Zetcode in een Zettenlijst bewaard.
+ * Ze worden pas gegenereerd als ze nodig zijn. De Zet objecten, met schaak en
+ * de korte notatie, worden pas gemaakt als getZetten aangeroepen wordt.
+ *
+ * Voor heeftLegaleZet, isMat en isPat stopt de generatie na het eerste stuk
+ * met een legale zet. Met genereerFase worden enkel de slagzetten en
+ * promoties of enkel de stille zetten gegenereerd. Met genereerStil worden
+ * enkel de stille zetten die schaak geven of die geen schaak geven
+ * gegenereerd. Dit wordt gebruikt door eu.debooy.caissa.Zettenstroom.
+ *
+ * Met getAanvallers en getRuilwaarde kan de ruil op een veld beoordeeld
+ * worden zonder de zetten te zoeken. Dit dient voor het ordenen van de zetten
+ * en om grove fouten in partijen snel te herkennen. getAanvallers krijgt een
+ * veld van het interne bord maar geeft een bitbord met a1 als bit 0.
+ *
+ * Met getZetcodes voor een stuk en een veld en met getRokade worden enkel de
+ * zetten naar dat veld gezocht. Dit wordt gebruikt om de zetten van een partij
+ * te vinden.
+ *
+ * @author Marco de Booij
+ */
+public class BitbordZettengenerator implements Zettengeneratie {
+  private static final  int ZWART = 1;
+  private static final  int WIT   = 0;
+
+  // Waarde van de stukken in centipionnen voor de ruilwaarde.
+  private static final  int[] WAARDE  = {0, 100, 300, 300, 500, 900, 20000};
+
+  private final long[]      bitbord   = new long[13];
+  private final long[]      kleur     = new long[2];
+  private final int[]       velden    = new int[64];
+  private final Zettenlijst zetcodes  = new Zettenlijst(256);
+
+  private long    bezet         = 0L;
+  private long    doel          = -1L;
+  private int     enPassant     = -1;
+  private FEN     fen           = null;
+  private long    gepend        = 0L;
+  private boolean gezocht       = false;
+  private int     koning        = -1;
+  private boolean korteRokade;
+  private int     kortetoren;
+  private boolean langeRokade;
+  private int     langetoren;
+  private long    ontdekkers    = 0L;
+  private int     schaakfase    = 0;
+  private int     vijandKoning  = -1;
+  private boolean faseSlagen    = true;
+  private boolean faseStil      = true;
+  private Zettenlijst uitvoer   = zetcodes;
+  private boolean volledig      = false;
+  private boolean wit;
+  private List<Zet> zetten      = null;
+
+  public BitbordZettengenerator(FEN fen) {
+    this.fen      = fen;
+    var bord      = fen.bord();
+    for (var veld = 0; veld < 64; veld++) {
+      var stuk  = bord[Bitborden.veldToIntern(veld)];
+      if (stuk != 0) {
+        zetStuk(stuk, veld);
+      }
+    }
+
+    wit     = fen.getAanZet() == CaissaConstants.WIT;
+    var ep  = fen.getEnPassantVeld();
+    if (ep != 0) {
+      enPassant = Bitborden.internToVeld(ep);
+    }
+    if (wit) {
+      korteRokade = fen.getWitKorteRokade();
+      kortetoren  = Bitborden.internToVeld(
+                      CaissaUtils.externToIntern(fen.getWitKorteToren()));
+      langeRokade = fen.getWitLangeRokade();
+      langetoren  = Bitborden.internToVeld(
+                      CaissaUtils.externToIntern(fen.getWitLangeToren()));
+    } else {
+      korteRokade = fen.getZwartKorteRokade();
+      kortetoren  = Bitborden.internToVeld(
+                      CaissaUtils.externToIntern(fen.getZwartKorteToren()));
+      langeRokade = fen.getZwartLangeRokade();
+      langetoren  = Bitborden.internToVeld(
+                      CaissaUtils.externToIntern(fen.getZwartLangeToren()));
+    }
+  }
+
+  private void addZet(int van, int naar, int promotie) {
+    uitvoer.add(Zetcode.maak(Bitborden.veldToIntern(van),
+                              Bitborden.veldToIntern(naar),
+                              Math.abs(velden[van]), Math.abs(velden[naar]),
+                              promotie, 0));
+  }
+
+  /**
+   * Geeft alle stukken van de gegeven kleur die het veld aanvallen.
+   */
+  private long aanvallers(int veld, boolean doorWit, long bezetting) {
+    var teken = doorWit ? 1 : -1;
+    var dame  = bitbord[CaissaConstants.DAME * teken + 6];
+
+    return (Bitborden.paardAanval(veld)
+              & bitbord[CaissaConstants.PAARD * teken + 6])
+           | (Bitborden.pionAanval(veld, !doorWit)
+              & bitbord[CaissaConstants.PION * teken + 6])
+           | (Bitborden.koningAanval(veld)
+              & bitbord[CaissaConstants.KONING * teken + 6])
+           | (Bitborden.loperAanval(veld, bezetting)
+              & (bitbord[CaissaConstants.LOPER * teken + 6] | dame))
+           | (Bitborden.torenAanval(veld, bezetting)
+              & (bitbord[CaissaConstants.TOREN * teken + 6] | dame));
+  }
+
+  /**
+   * Geeft alle velden die de stukken van de gegeven kleur aanvallen.
+   */
+  private long aanvalskaart(boolean doorWit, long bezetting) {
+    var teken   = doorWit ? 1 : -1;
+    var kaart   = 0L;
+
+    var stukken = bitbord[CaissaConstants.PION * teken + 6];
+    while (stukken != 0) {
+      kaart    |= Bitborden.pionAanval(Long.numberOfTrailingZeros(stukken),
+                                       doorWit);
+      stukken  &= stukken - 1;
+    }
+    stukken     = bitbord[CaissaConstants.PAARD * teken + 6];
+    while (stukken != 0) {
+      kaart    |= Bitborden.paardAanval(Long.numberOfTrailingZeros(stukken));
+      stukken  &= stukken - 1;
+    }
+    var dame    = bitbord[CaissaConstants.DAME * teken + 6];
+    stukken     = bitbord[CaissaConstants.LOPER * teken + 6] | dame;
+    while (stukken != 0) {
+      kaart    |= Bitborden.loperAanval(Long.numberOfTrailingZeros(stukken),
+                                        bezetting);
+      stukken  &= stukken - 1;
+    }
+    stukken     = bitbord[CaissaConstants.TOREN * teken + 6] | dame;
+    while (stukken != 0) {
+      kaart    |= Bitborden.torenAanval(Long.numberOfTrailingZeros(stukken),
+                                        bezetting);
+      stukken  &= stukken - 1;
+    }
+    stukken     = bitbord[CaissaConstants.KONING * teken + 6];
+    if (stukken != 0) {
+      kaart    |= Bitborden.koningAanval(Long.numberOfTrailingZeros(stukken));
+    }
+
+    return kaart;
+  }
+
+  /**
+   * Wordt het veld aangevallen door de stukken van de gegeven kleur?
+   */
+  private boolean aangevallen(int veld, boolean doorWit, long bezetting) {
+    var teken = doorWit ? 1 : -1;
+
+    if ((Bitborden.paardAanval(veld)
+          & bitbord[CaissaConstants.PAARD * teken + 6]) != 0) {
+      return true;
+    }
+    if ((Bitborden.pionAanval(veld, !doorWit)
+          & bitbord[CaissaConstants.PION * teken + 6]) != 0) {
+      return true;
+    }
+    if ((Bitborden.koningAanval(veld)
+          & bitbord[CaissaConstants.KONING * teken + 6]) != 0) {
+      return true;
+    }
+
+    var dame  = bitbord[CaissaConstants.DAME * teken + 6];
+    if ((Bitborden.loperAanval(veld, bezetting)
+          & (bitbord[CaissaConstants.LOPER * teken + 6] | dame)) != 0) {
+      return true;
+    }
+
+    return (Bitborden.torenAanval(veld, bezetting)
+              & (bitbord[CaissaConstants.TOREN * teken + 6] | dame)) != 0;
+  }
+
+  private static long bereik(int van, int tot) {
+    return (-1L >>> (63 - tot)) & (-1L << van);
+  }
+
+  /**
+   * Geeft de eigen stukken die gepend staan op de koning.
+   */
+  private long bepaalGepend() {
+    var teken   = wit ? -1 : 1;
+    var dame    = bitbord[CaissaConstants.DAME * teken + 6];
+    var vijand  = kleur[wit ? ZWART : WIT];
+    var pennen  = 0L;
+
+    var stukken = (Bitborden.torenAanval(koning, vijand)
+                   & (bitbord[CaissaConstants.TOREN * teken + 6] | dame))
+                  | (Bitborden.loperAanval(koning, vijand)
+                     & (bitbord[CaissaConstants.LOPER * teken + 6] | dame));
+    while (stukken != 0) {
+      var tussen  = Bitborden.tussen(koning,
+                                     Long.numberOfTrailingZeros(stukken))
+                    & bezet;
+      if (Long.bitCount(tussen) == 1) {
+        pennen   |= tussen & kleur[wit ? WIT : ZWART];
+      }
+      stukken    &= stukken - 1;
+    }
+
+    return pennen;
+  }
+
+  /**
+   * Geeft de eigen stukken die als enige tussen de vijandelijke koning en een
+   * eigen loper, toren of dame staan. Als zo'n stuk de lijn verlaat dan geeft
+   * het een aftrekschaak.
+   */
+  private long bepaalOntdekkers() {
+    var teken   = wit ? 1 : -1;
+    var dame    = bitbord[CaissaConstants.DAME * teken + 6];
+    var vijand  = kleur[wit ? ZWART : WIT];
+    var ontdekt = 0L;
+
+    var stukken = (Bitborden.torenAanval(vijandKoning, vijand)
+                   & (bitbord[CaissaConstants.TOREN * teken + 6] | dame))
+                  | (Bitborden.loperAanval(vijandKoning, vijand)
+                     & (bitbord[CaissaConstants.LOPER * teken + 6] | dame));
+    while (stukken != 0) {
+      var tussen  = Bitborden.tussen(vijandKoning,
+                                     Long.numberOfTrailingZeros(stukken))
+                    & bezet;
+      if (Long.bitCount(tussen) == 1) {
+        ontdekt  |= tussen & kleur[wit ? WIT : ZWART];
+      }
+      stukken    &= stukken - 1;
+    }
+
+    return ontdekt;
+  }
+
+  /**
+   * Voert de zet uit op de bitborden.
+   */
+  private void doeZet(int zet) {
+    var teken = wit ? 1 : -1;
+    var van   = Bitborden.internToVeld(Zetcode.getVan(zet));
+    var naar  = Bitborden.internToVeld(Zetcode.getNaar(zet));
+    var stuk  = Zetcode.getStuk(zet) * teken;
+
+    if (Zetcode.isEnPassant(zet)) {
+      haalStuk(-CaissaConstants.PION * teken, naar - 8 * teken);
+    } else if (Zetcode.isSlagzet(zet)) {
+      haalStuk(-Zetcode.getGeslagen(zet) * teken, naar);
+    }
+    haalStuk(stuk, van);
+    if (Zetcode.isRokade(zet)) {
+      var toren = (zet & Zetcode.KORTE_ROKADE) != 0 ? kortetoren : langetoren;
+      haalStuk(CaissaConstants.TOREN * teken, toren);
+      zetStuk(CaissaConstants.TOREN * teken, torenNaar(zet));
+    }
+    if (Zetcode.getPromotie(zet) != 0) {
+      stuk  = Zetcode.getPromotie(zet) * teken;
+    }
+    zetStuk(stuk, naar);
+  }
+
+  /**
+   * Bij en passant verdwijnen twee stukken van de rij van de koning. Daarom
+   * wordt de zet uitgevoerd om te zien of de koning niet schaak komt te staan.
+   */
+  private void enPassantZet(int van) {
+    var zet = Zetcode.maak(Bitborden.veldToIntern(van),
+                           Bitborden.veldToIntern(enPassant),
+                           CaissaConstants.PION, CaissaConstants.PION, 0,
+                           Zetcode.EN_PASSANT);
+
+    doeZet(zet);
+    if (!isSchaak(wit)) {
+      uitvoer.add(zet);
+    }
+    neemTerug(zet);
+  }
+
+  /**
+   * Geeft de zet schaak?
+   *
+   * @param zet
+   * @return
+   */
+  boolean geeftSchaak(int zet) {
+    doeZet(zet);
+    var schaak  = isSchaak(!wit);
+    neemTerug(zet);
+
+    return schaak;
+  }
+
+  /**
+   * Genereert de slagzetten en promoties of de stille zetten in de lijst. Een
+   * promotie zonder slag hoort bij de slagzetten. De rokade is een stille
+   * zet.
+   *
+   * @param lijst
+   * @param metSlagen
+   * @param metStil
+   */
+  void genereerFase(Zettenlijst lijst, boolean metSlagen, boolean metStil) {
+    uitvoer     = lijst;
+    faseSlagen  = metSlagen;
+    faseStil    = metStil;
+    try {
+      genereerZetten(false);
+    } finally {
+      uitvoer     = zetcodes;
+      faseSlagen  = true;
+      faseStil    = true;
+    }
+  }
+
+  /**
+   * Genereert de stille zetten die schaak geven of de stille zetten die geen
+   * schaak geven in de lijst. Enkel een rokade wordt daarvoor uitgevoerd. Voor
+   * de andere zetten volstaan de velden van waar een stuk de vijandelijke
+   * koning aanvalt en de stukken die een aftrekschaak kunnen geven.
+   *
+   * @param lijst
+   * @param schaak
+   */
+  void genereerStil(Zettenlijst lijst, boolean schaak) {
+    var koningen  = bitbord[CaissaConstants.KONING * (wit ? -1 : 1) + 6];
+    vijandKoning  = koningen == 0 ? -1 : Long.numberOfTrailingZeros(koningen);
+    ontdekkers    = vijandKoning < 0 ? 0L : bepaalOntdekkers();
+    schaakfase    = schaak ? 1 : -1;
+    try {
+      genereerFase(lijst, false, true);
+    } finally {
+      schaakfase  = 0;
+    }
+  }
+
+  private void genereer() {
+    if (!volledig) {
+      zetcodes.clear();
+      genereerZetten(false);
+      volledig  = true;
+    }
+  }
+
+  /**
+   * Genereert de legale zetten. Met eenZet wordt gestopt zodra er een zet
+   * gevonden is.
+   */
+  private void genereerZetten(boolean eenZet) {
+    var teken = wit ? 1 : -1;
+    var eigen = kleur[wit ? WIT : ZWART];
+
+    doel  = ~eigen;
+    var koningen  = bitbord[CaissaConstants.KONING * teken + 6];
+    if (koningen != 0) {
+      koning  = Long.numberOfTrailingZeros(koningen);
+      if (!koningZetten(eigen)
+          || (eenZet && !uitvoer.isEmpty())) {
+        return;
+      }
+      gepend  = bepaalGepend();
+    }
+
+    var stukken = bitbord[CaissaConstants.PION * teken + 6];
+    while (stukken != 0) {
+      var van = Long.numberOfTrailingZeros(stukken);
+      stukken &= stukken - 1;
+      pionZetten(van);
+      if (eenZet && !uitvoer.isEmpty()) {
+        return;
+      }
+    }
+
+    stukken = bitbord[CaissaConstants.PAARD * teken + 6] & ~gepend;
+    while (stukken != 0) {
+      var van = Long.numberOfTrailingZeros(stukken);
+      stukken &= stukken - 1;
+      stukZetten(van, Bitborden.paardAanval(van));
+      if (eenZet && !uitvoer.isEmpty()) {
+        return;
+      }
+    }
+
+    stukken = bitbord[CaissaConstants.LOPER * teken + 6];
+    while (stukken != 0) {
+      var van = Long.numberOfTrailingZeros(stukken);
+      stukken &= stukken - 1;
+      stukZetten(van, Bitborden.loperAanval(van, bezet));
+      if (eenZet && !uitvoer.isEmpty()) {
+        return;
+      }
+    }
+
+    stukken = bitbord[CaissaConstants.TOREN * teken + 6];
+    while (stukken != 0) {
+      var van = Long.numberOfTrailingZeros(stukken);
+      stukken &= stukken - 1;
+      stukZetten(van, Bitborden.torenAanval(van, bezet));
+      if (eenZet && !uitvoer.isEmpty()) {
+        return;
+      }
+    }
+
+    stukken = bitbord[CaissaConstants.DAME * teken + 6];
+    while (stukken != 0) {
+      var van = Long.numberOfTrailingZeros(stukken);
+      stukken &= stukken - 1;
+      stukZetten(van, Bitborden.dameAanval(van, bezet));
+      if (eenZet && !uitvoer.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Geeft alle stukken, van beide kleuren, die het veld aanvallen.
+   *
+   * Het veld en het resultaat gebruiken een andere nummering. Het veld is een
+   * veld van het interne bord, zoals in FEN en Zetcode: a1 is 21 en h8 is 98.
+   * Het resultaat is een bitbord met een bit per veld: a1 is bit 0, b1 is
+   * bit 1 en h8 is bit 63. Bitborden.veldToIntern zet het nummer van een bit
+   * om naar een veld van het interne bord.
+   *
+   * @param veld Een veld van het interne bord (21 tot 98).
+   * @return Een bitbord met a1 als bit 0.
+   */
+  public long getAanvallers(int veld) {
+    var doelveld  = Bitborden.internToVeld(veld);
+
+    return aanvallers(doelveld, true, bezet)
+           | aanvallers(doelveld, false, bezet);
+  }
+
+  @Override
+  public int getAantalZetten() {
+    genereer();
+
+    return zetcodes.size();
+  }
+
+  @Override
+  public List<String> getNieuweStellingen() throws FenException {
+    List<String>  stellingen  = new ArrayList<>();
+
+    genereer();
+    for (var i = 0; i < zetcodes.size(); i++) {
+      fen.doeZet(zetcodes.get(i));
+      stellingen.add(fen.getFen());
+      fen.neemTerug();
+    }
+
+    return stellingen;
+  }
+
+  /**
+   * Geeft de code van de rokade als die legaal is. Anders 0.
+   *
+   * @param kort true voor de korte rokade.
+   * @return
+   */
+  public int getRokade(boolean kort) {
+    var koningen  = bitbord[CaissaConstants.KONING * (wit ? 1 : -1) + 6];
+
+    if (koningen == 0
+        || !(kort ? korteRokade : langeRokade)
+        || isSchaak(wit)) {
+      return 0;
+    }
+
+    var lijst = new Zettenlijst(1);
+    uitvoer   = lijst;
+    try {
+      rokade(Long.numberOfTrailingZeros(koningen),
+             kort ? kortetoren : langetoren, kort);
+    } finally {
+      uitvoer = zetcodes;
+    }
+
+    return lijst.isEmpty() ? 0 : lijst.get(0);
+  }
+
+  /**
+   * Geeft de statische ruilwaarde van de zet in centipionnen voor de speler
+   * die aan zet is. Na de zet slaan beide spelers om beurt met hun minst
+   * waardevolle stuk op het veld van aankomst zolang dit voor hen iets
+   * oplevert. Stukken achter een slaand stuk op dezelfde lijn doen mee zodra
+   * het voorste stuk weg is. Penningen worden niet bekeken.
+   *
+   * Een negatieve waarde betekent dat de zet materiaal verliest. Een stille
+   * zet naar een veld waar het stuk verloren gaat krijgt ook een negatieve
+   * waarde.
+   *
+   * @param zetcode
+   * @return
+   */
+  public int getRuilwaarde(int zetcode) {
+    if (Zetcode.isRokade(zetcode)) {
+      return 0;
+    }
+
+    var van       = Bitborden.internToVeld(Zetcode.getVan(zetcode));
+    var naar      = Bitborden.internToVeld(Zetcode.getNaar(zetcode));
+    var promotie  = Zetcode.getPromotie(zetcode);
+    var winst     = new int[33];
+    var bezetting = bezet ^ (1L << van);
+    var opVeld    = WAARDE[Zetcode.getStuk(zetcode)];
+
+    winst[0]      = WAARDE[Zetcode.getGeslagen(zetcode)];
+    if (Zetcode.isEnPassant(zetcode)) {
+      bezetting  ^= 1L << (naar + (wit ? -8 : 8));
+    }
+    if (promotie != 0) {
+      winst[0]   += WAARDE[promotie] - WAARDE[CaissaConstants.PION];
+      opVeld      = WAARDE[promotie];
+    }
+
+    var aanvallers  = (aanvallers(naar, true, bezetting)
+                       | aanvallers(naar, false, bezetting)) & bezetting;
+    var diepte      = 0;
+    var doorWit     = !wit;
+    while (true) {
+      var teken   = doorWit ? 1 : -1;
+      var eigen   = aanvallers & kleur[doorWit ? WIT : ZWART];
+      if (eigen == 0) {
+        break;
+      }
+      var soort   = CaissaConstants.PION;
+      var stukken = eigen & bitbord[soort * teken + 6];
+      while (stukken == 0) {
+        soort++;
+        stukken   = eigen & bitbord[soort * teken + 6];
+      }
+      // De koning slaat niet als het veld nog aangevallen wordt.
+      if (soort == CaissaConstants.KONING
+          && (aanvallers & kleur[doorWit ? ZWART : WIT]) != 0) {
+        break;
+      }
+
+      diepte++;
+      winst[diepte] = opVeld - winst[diepte - 1];
+      opVeld        = WAARDE[soort];
+      bezetting    ^= stukken & -stukken;
+      aanvallers   |= xRay(naar, bezetting);
+      aanvallers   &= bezetting;
+      doorWit       = !doorWit;
+    }
+
+    // Elke speler mag stoppen met slaan als dit beter is.
+    while (diepte > 0) {
+      winst[diepte - 1] = -Math.max(-winst[diepte - 1], winst[diepte]);
+      diepte--;
+    }
+
+    return winst[0];
+  }
+
+  /**
+   * Geeft de Zet voor een zetcode van deze stelling met schaak en de korte
+   * notatie. Voor de korte notatie worden enkel de zetten van hetzelfde stuk
+   * naar hetzelfde veld gegenereerd.
+   *
+   * @param zetcode
+   * @return
+   */
+  public Zet getZet(int zetcode) {
+    List<Zet> rivalen = new ArrayList<>();
+    var       zet     = Zetcode.toZet(zetcode);
+
+    doeZet(zetcode);
+    zet.setSchaak(isSchaak(!wit));
+    neemTerug(zetcode);
+    rivalen.add(zet);
+    if (!Zetcode.isRokade(zetcode)) {
+      var codes = getZetcodes(Zetcode.getStuk(zetcode),
+                              Zetcode.getNaar(zetcode),
+                              Zetcode.getPromotie(zetcode));
+      for (var i = 0; i < codes.size(); i++) {
+        var code  = codes.get(i);
+        if (code != zetcode) {
+          rivalen.add(Zetcode.toZet(code));
+        }
+      }
+    }
+    CaissaUtils.maakUniek(rivalen);
+
+    return zet;
+  }
+
+  @Override
+  public Zettenlijst getZetcodes() {
+    genereer();
+
+    return zetcodes;
+  }
+
+  /**
+   * Geeft de legale zetten van een soort stuk naar het veld. Enkel de stukken
+   * die het veld aanvallen, of voor een pion er naartoe kunnen gaan, worden
+   * bekeken en enkel voor die zetten wordt de legaliteit gecontroleerd. Zo
+   * moet voor een zet uit een partij niet elke zet gegenereerd worden. De
+   * rokade zit er niet bij. Het veld is een veld van het interne bord.
+   *
+   * @param stuk Het stuk zonder kleur.
+   * @param naar
+   * @param promotie Het promotiestuk zonder kleur of 0.
+   * @return
+   */
+  public Zettenlijst getZetcodes(int stuk, int naar, int promotie) {
+    var lijst     = new Zettenlijst(8);
+    var teken     = wit ? 1 : -1;
+    var veld      = Bitborden.internToVeld(naar);
+    var bit       = 1L << veld;
+    var stukken   = bitbord[stuk * teken + 6];
+    var geslagen  = Math.abs(velden[veld]);
+    var vlaggen   = 0;
+
+    if ((kleur[wit ? WIT : ZWART] & bit) != 0) {
+      return lijst;
+    }
+
+    long  vanaf;
+    switch (stuk) {
+      case CaissaConstants.PION   -> {
+        if ((veld < 8 || veld > 55) != (promotie != 0)) {
+          return lijst;
+        }
+        if (geslagen != 0) {
+          vanaf     = Bitborden.pionAanval(veld, !wit) & stukken;
+        } else if (veld == enPassant) {
+          vanaf     = Bitborden.pionAanval(veld, !wit) & stukken;
+          geslagen  = CaissaConstants.PION;
+          vlaggen   = Zetcode.EN_PASSANT;
+        } else {
+          vanaf     = pionVanaf(veld) & stukken;
+        }
+      }
+      case CaissaConstants.PAARD  ->
+          vanaf = Bitborden.paardAanval(veld) & stukken;
+      case CaissaConstants.LOPER  ->
+          vanaf = Bitborden.loperAanval(veld, bezet) & stukken;
+      case CaissaConstants.TOREN  ->
+          vanaf = Bitborden.torenAanval(veld, bezet) & stukken;
+      case CaissaConstants.DAME   ->
+          vanaf = Bitborden.dameAanval(veld, bezet) & stukken;
+      case CaissaConstants.KONING ->
+          vanaf = Bitborden.koningAanval(veld) & stukken;
+      default                     -> vanaf = 0L;
+    }
+    if (stuk != CaissaConstants.PION && promotie != 0) {
+      return lijst;
+    }
+
+    while (vanaf != 0) {
+      var zet = Zetcode.maak(
+                    Bitborden.veldToIntern(Long.numberOfTrailingZeros(vanaf)),
+                    naar, stuk, geslagen, promotie, vlaggen);
+      doeZet(zet);
+      if (!isSchaak(wit)) {
+        lijst.add(zet);
+      }
+      neemTerug(zet);
+      vanaf  &= vanaf - 1;
+    }
+
+    return lijst;
+  }
+
+  @Override
+  public List<Zet> getZetten() {
+    if (null == zetten) {
+      genereer();
+      zetten  = new ArrayList<>(zetcodes.size());
+      for (var i = 0; i < zetcodes.size(); i++) {
+        var code  = zetcodes.get(i);
+        var zet   = Zetcode.toZet(code);
+        doeZet(code);
+        zet.setSchaak(isSchaak(!wit));
+        neemTerug(code);
+        zetten.add(zet);
+      }
+      CaissaUtils.maakUniek(zetten);
+    }
+
+    return new ArrayList<>(zetten);
+  }
+
+  private void haalStuk(int stuk, int veld) {
+    var bit = 1L << veld;
+
+    bitbord[stuk + 6]             ^= bit;
+    kleur[stuk > 0 ? WIT : ZWART] ^= bit;
+    bezet                         ^= bit;
+    velden[veld]                   = 0;
+  }
+
+  /**
+   * Heeft de speler aan zet nog een legale zet? De zetten worden slechts
+   * gegenereerd tot de eerste legale zet gevonden is.
+   *
+   * @return
+   */
+  public boolean heeftLegaleZet() {
+    if (!volledig && !gezocht) {
+      zetcodes.clear();
+      genereerZetten(true);
+      gezocht = true;
+    }
+
+    return !zetcodes.isEmpty();
+  }
+
+  /**
+   * Staat de speler aan zet mat?
+   *
+   * @return
+   */
+  public boolean isMat() {
+    return isSchaak() && !heeftLegaleZet();
+  }
+
+  /**
+   * Staat de speler aan zet pat?
+   *
+   * @return
+   */
+  public boolean isPat() {
+    return !isSchaak() && !heeftLegaleZet();
+  }
+
+  /**
+   * Staat de koning van de speler aan zet schaak?
+   *
+   * @return
+   */
+  public boolean isSchaak() {
+    return isSchaak(wit);
+  }
+
+  /**
+   * Staat de koning van de gegeven kleur schaak?
+   */
+  private boolean isSchaak(boolean koningWit) {
+    var koning  = bitbord[CaissaConstants.KONING * (koningWit ? 1 : -1) + 6];
+
+    if (koning == 0) {
+      return false;
+    }
+
+    return aangevallen(Long.numberOfTrailingZeros(koning), !koningWit, bezet);
+  }
+
+  /**
+   * Genereert de zetten van de koning en bepaalt naar welke velden de andere
+   * stukken mogen. Geeft false als enkel de koning mag zetten (dubbelschaak).
+   */
+  private boolean koningZetten(long eigen) {
+    var koningBit = 1L << koning;
+    var kaart     = aanvalskaart(!wit, bezet & ~koningBit);
+    var doelen    = Bitborden.koningAanval(koning) & ~eigen & ~kaart
+                    & soort() & schaakfilter(koning);
+
+    while (doelen != 0) {
+      addZet(koning, Long.numberOfTrailingZeros(doelen), 0);
+      doelen &= doelen - 1;
+    }
+
+    if ((kaart & koningBit) == 0) {
+      if (!faseStil) {
+        return true;
+      }
+      if (korteRokade) {
+        rokade(koning, kortetoren, true);
+      }
+      if (langeRokade) {
+        rokade(koning, langetoren, false);
+      }
+
+      return true;
+    }
+
+    var schakers  = aanvallers(koning, !wit, bezet);
+    if (Long.bitCount(schakers) > 1) {
+      return false;
+    }
+
+    doel &= schakers
+            | Bitborden.tussen(koning, Long.numberOfTrailingZeros(schakers));
+
+    return true;
+  }
+
+  /**
+   * Neemt de zet terug op de bitborden.
+   */
+  private void neemTerug(int zet) {
+    var teken = wit ? 1 : -1;
+    var van   = Bitborden.internToVeld(Zetcode.getVan(zet));
+    var naar  = Bitborden.internToVeld(Zetcode.getNaar(zet));
+    var stuk  = Zetcode.getStuk(zet) * teken;
+
+    haalStuk(Zetcode.getPromotie(zet) == 0 ? stuk
+                                           : Zetcode.getPromotie(zet) * teken,
+             naar);
+    if (Zetcode.isRokade(zet)) {
+      var toren = (zet & Zetcode.KORTE_ROKADE) != 0 ? kortetoren : langetoren;
+      haalStuk(CaissaConstants.TOREN * teken, torenNaar(zet));
+      zetStuk(CaissaConstants.TOREN * teken, toren);
+    }
+    zetStuk(stuk, van);
+    if (Zetcode.isEnPassant(zet)) {
+      zetStuk(-CaissaConstants.PION * teken, naar - 8 * teken);
+    } else if (Zetcode.isSlagzet(zet)) {
+      zetStuk(-Zetcode.getGeslagen(zet) * teken, naar);
+    }
+  }
+
+  /**
+   * Geeft de velden vanwaar een pion van de speler aan zet zonder te slaan
+   * naar het lege veld kan gaan.
+   */
+  private long pionVanaf(int veld) {
+    var richting  = wit ? 8 : -8;
+    var van       = veld - richting;
+
+    if (van < 0 || van > 63) {
+      return 0L;
+    }
+    if (velden[van] != 0) {
+      return 1L << van;
+    }
+
+    var startrij  = wit ? Bitborden.RIJ_2 : Bitborden.RIJ_7;
+    van          -= richting;
+    if (van < 0 || van > 63 || (startrij & (1L << van)) == 0) {
+      return 0L;
+    }
+
+    return 1L << van;
+  }
+
+  private void pionZet(int van, int naar) {
+    if (naar < 8 || naar > 55) {
+      if (!faseSlagen) {
+        return;
+      }
+      addZet(van, naar, CaissaConstants.DAME);
+      addZet(van, naar, CaissaConstants.TOREN);
+      addZet(van, naar, CaissaConstants.PAARD);
+      addZet(van, naar, CaissaConstants.LOPER);
+    } else if (velden[naar] == 0 ? faseStil : faseSlagen) {
+      addZet(van, naar, 0);
+    }
+  }
+
+  private void pionZetten(int van) {
+    var richting    = wit ? 8 : -8;
+    var naar        = van + richting;
+    var toegelaten  = doel & penning(van) & schaakfilter(van);
+
+    // Een pion op de laatste rij kan niet meer vooruit.
+    if (naar < 0 || naar > 63) {
+      return;
+    }
+
+    if (velden[naar] == 0) {
+      if ((toegelaten & (1L << naar)) != 0) {
+        pionZet(van, naar);
+      }
+      var startrij  = wit ? Bitborden.RIJ_2 : Bitborden.RIJ_7;
+      if (faseStil
+          && (startrij & (1L << van)) != 0
+          && velden[naar + richting] == 0
+          && (toegelaten & (1L << (naar + richting))) != 0) {
+        addZet(van, naar + richting, 0);
+      }
+    }
+
+    var slagen  = Bitborden.pionAanval(van, wit) & kleur[wit ? ZWART : WIT]
+                  & toegelaten;
+    while (slagen != 0) {
+      pionZet(van, Long.numberOfTrailingZeros(slagen));
+      slagen &= slagen - 1;
+    }
+
+    if (faseSlagen
+        && enPassant >= 0
+        && (Bitborden.pionAanval(van, wit) & (1L << enPassant)) != 0) {
+      enPassantZet(van);
+    }
+  }
+
+  private void rokade(int koning, int toren, boolean kort) {
+    var teken = wit ? 1 : -1;
+
+    if (velden[toren] != CaissaConstants.TOREN * teken) {
+      return;
+    }
+
+    var rij         = koning - koning % 8;
+    var koningNaar  = rij + (kort ? 6 : 2);
+    var torenNaar   = rij + (kort ? 5 : 3);
+    var koningBit   = 1L << koning;
+    var torenBit    = 1L << toren;
+
+    // Alle velden tussen koning, toren en hun doelvelden moeten leeg zijn.
+    var pad = bereik(Math.min(Math.min(koning, toren),
+                              Math.min(koningNaar, torenNaar)),
+                     Math.max(Math.max(koning, toren),
+                              Math.max(koningNaar, torenNaar)));
+    if ((pad & bezet & ~koningBit & ~torenBit) != 0) {
+      return;
+    }
+
+    // De koning mag niet schaak staan of over een aangevallen veld gaan.
+    var zonder  = bezet & ~koningBit & ~torenBit;
+    for (var veld = Math.min(koning, koningNaar);
+         veld <= Math.max(koning, koningNaar); veld++) {
+      if (aangevallen(veld, !wit, zonder)) {
+        return;
+      }
+    }
+
+    var zet = Zetcode.maak(Bitborden.veldToIntern(koning),
+                           Bitborden.veldToIntern(koningNaar),
+                           CaissaConstants.KONING, 0, 0,
+                           kort ? Zetcode.KORTE_ROKADE : Zetcode.LANGE_ROKADE);
+    if (schaakfase != 0 && geeftSchaak(zet) != (schaakfase > 0)) {
+      return;
+    }
+
+    uitvoer.add(zet);
+  }
+
+  /**
+   * Geeft de velden waar een gepend stuk naartoe mag. Voor een stuk dat niet
+   * gepend staat zijn dat alle velden.
+   */
+  private long penning(int van) {
+    if ((gepend & (1L << van)) == 0) {
+      return -1L;
+    }
+
+    return Bitborden.lijn(koning, van);
+  }
+
+  /**
+   * Geeft de velden waar het stuk op het veld in de huidige schaakfase
+   * naartoe mag.
+   */
+  private long schaakfilter(int van) {
+    if (schaakfase == 0) {
+      return -1L;
+    }
+
+    var schaak  = schaakvelden(van);
+
+    return schaakfase > 0 ? schaak : ~schaak;
+  }
+
+  /**
+   * Geeft de velden waar het stuk op het veld met een stille zet schaak geeft.
+   */
+  private long schaakvelden(int van) {
+    if (vijandKoning < 0) {
+      return 0L;
+    }
+
+    long  schaak;
+    switch (Math.abs(velden[van])) {
+      case CaissaConstants.PION   ->
+          schaak  = Bitborden.pionAanval(vijandKoning, !wit);
+      case CaissaConstants.PAARD  ->
+          schaak  = Bitborden.paardAanval(vijandKoning);
+      case CaissaConstants.LOPER  ->
+          schaak  = Bitborden.loperAanval(vijandKoning, bezet);
+      case CaissaConstants.TOREN  ->
+          schaak  = Bitborden.torenAanval(vijandKoning, bezet);
+      case CaissaConstants.DAME   ->
+          schaak  = Bitborden.dameAanval(vijandKoning, bezet);
+      default                     -> schaak  = 0L;
+    }
+
+    if ((ontdekkers & (1L << van)) != 0) {
+      schaak   |= ~Bitborden.lijn(vijandKoning, van);
+    }
+
+    return schaak;
+  }
+
+  /**
+   * Geeft de velden waar een zet in de huidige fase naartoe mag.
+   */
+  private long soort() {
+    return (faseSlagen ? kleur[wit ? ZWART : WIT] : 0L)
+           | (faseStil ? ~bezet : 0L);
+  }
+
+  private void stukZetten(int van, long doelen) {
+    doelen &= doel & penning(van) & soort() & schaakfilter(van);
+    while (doelen != 0) {
+      addZet(van, Long.numberOfTrailingZeros(doelen), 0);
+      doelen &= doelen - 1;
+    }
+  }
+
+  /**
+   * Geeft het veld van de toren na de rokade.
+   */
+  private static int torenNaar(int zet) {
+    var koning  = Bitborden.internToVeld(Zetcode.getVan(zet));
+
+    return koning - koning % 8
+           + ((zet & Zetcode.KORTE_ROKADE) != 0 ? 5 : 3);
+  }
+
+  /**
+   * Geeft de lopers, torens en dames van beide kleuren die het veld met de
+   * gegeven bezetting aanvallen.
+   */
+  private long xRay(int veld, long bezetting) {
+    var dames = bitbord[CaissaConstants.DAME + 6]
+                | bitbord[CaissaConstants.ZDAME + 6];
+
+    return (Bitborden.loperAanval(veld, bezetting)
+              & (bitbord[CaissaConstants.LOPER + 6]
+                 | bitbord[CaissaConstants.ZLOPER + 6] | dames))
+           | (Bitborden.torenAanval(veld, bezetting)
+              & (bitbord[CaissaConstants.TOREN + 6]
+                 | bitbord[CaissaConstants.ZTOREN + 6] | dames));
+  }
+
+  private void zetStuk(int stuk, int veld) {
+    var bit = 1L << veld;
+
+    bitbord[stuk + 6]             |= bit;
+    kleur[stuk > 0 ? WIT : ZWART] |= bit;
+    bezet                         |= bit;
+    velden[veld]                   = stuk;
+  }
+}
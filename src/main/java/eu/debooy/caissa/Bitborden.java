@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+
+/**
+ * Deze class bevat de vooraf berekende aanvalstabellen voor een bord van 64
+ * velden. Elk veld is een bit in een long. Veld a1 is bit 0, h1 is bit 7 en h8
+ * is bit 63.
+ *
+ * Voor de lopers, torens en dames worden de stralen in de 8 richtingen vooraf
+ * berekend. De aanval langs een straal wordt afgebroken bij het eerste bezette
+ * veld.
+ *
+ * Voor elk paar velden op dezelfde lijn, rij of diagonaal staan de velden
+ * ertussen en de volledige lijn door beide velden in een tabel. Deze worden
+ * gebruikt voor penningen en om een schaak te blokkeren.
+ *
+ * @author Marco de Booij
+ */
+public final class Bitborden {
+  public static final long  LIJN_A  = 0x0101010101010101L;
+  public static final long  LIJN_H  = LIJN_A << 7;
+  public static final long  RIJ_1   = 0xFFL;
+  public static final long  RIJ_2   = RIJ_1 << 8;
+  public static final long  RIJ_7   = RIJ_1 << 48;
+  public static final long  RIJ_8   = RIJ_1 << 56;
+
+  // Noord, Oost, Noordoost, Noordwest, Zuid, West, Zuidoost, Zuidwest.
+  private static final int[]    RICHTING_LIJN = {0, 1, 1, -1,  0, -1,  1, -1};
+  private static final int[]    RICHTING_RIJ  = {1, 0, 1,  1, -1,  0, -1, -1};
+  private static final int[]    TEGENOVER     = {4, 5, 7,  6,  0,  1,  3,  2};
+
+  private static final long[]   KONING        = new long[64];
+  private static final long[]   PAARD         = new long[64];
+  private static final long[][] PION          = new long[2][64];
+  private static final long[][] LIJN          = new long[64][64];
+  private static final long[][] STRAAL        = new long[8][64];
+  private static final long[][] TUSSEN        = new long[64][64];
+
+  static {
+    int[] paardLijn   = {1, 2,  2,  1, -1, -2, -2, -1};
+    int[] paardRij    = {2, 1, -1, -2, -2, -1,  1,  2};
+
+    for (var veld = 0; veld < 64; veld++) {
+      var lijn  = veld % 8;
+      var rij   = veld / 8;
+      for (var i = 0; i < 8; i++) {
+        KONING[veld]  |= bit(lijn + RICHTING_LIJN[i], rij + RICHTING_RIJ[i]);
+        PAARD[veld]   |= bit(lijn + paardLijn[i], rij + paardRij[i]);
+        var l = lijn + RICHTING_LIJN[i];
+        var r = rij  + RICHTING_RIJ[i];
+        while (l >= 0 && l < 8 && r >= 0 && r < 8) {
+          STRAAL[i][veld] |= 1L << (r * 8 + l);
+          l += RICHTING_LIJN[i];
+          r += RICHTING_RIJ[i];
+        }
+      }
+      PION[0][veld] = bit(lijn - 1, rij + 1) | bit(lijn + 1, rij + 1);
+      PION[1][veld] = bit(lijn - 1, rij - 1) | bit(lijn + 1, rij - 1);
+    }
+
+    for (var veld = 0; veld < 64; veld++) {
+      for (var i = 0; i < 8; i++) {
+        var volledig  = STRAAL[i][veld] | STRAAL[TEGENOVER[i]][veld]
+                        | 1L << veld;
+        var tussen    = 0L;
+        var straal    = STRAAL[i][veld];
+        while (straal != 0) {
+          var ander = i < 4 ? Long.numberOfTrailingZeros(straal)
+                            : 63 - Long.numberOfLeadingZeros(straal);
+          TUSSEN[veld][ander] = tussen;
+          LIJN[veld][ander]   = volledig;
+          tussen             |= 1L << ander;
+          straal             ^= 1L << ander;
+        }
+      }
+    }
+  }
+
+  private Bitborden() {}
+
+  private static long bit(int lijn, int rij) {
+    if (lijn < 0 || lijn > 7 || rij < 0 || rij > 7) {
+      return 0L;
+    }
+
+    return 1L << (rij * 8 + lijn);
+  }
+
+  public static long dameAanval(int veld, long bezet) {
+    return loperAanval(veld, bezet) | torenAanval(veld, bezet);
+  }
+
+  public static int externToVeld(String veld) {
+    return (veld.charAt(0) - 'a') + (veld.charAt(1) - '1') * 8;
+  }
+
+  public static int internToVeld(int intern) {
+    return (intern / 10 - 2) * 8 + intern % 10 - 1;
+  }
+
+  public static long koningAanval(int veld) {
+    return KONING[veld];
+  }
+
+  public static long loperAanval(int veld, long bezet) {
+    return straalAanval(veld, bezet, 2) | straalAanval(veld, bezet, 3)
+           | straalAanval(veld, bezet, 6) | straalAanval(veld, bezet, 7);
+  }
+
+  /**
+   * Geeft alle velden van de lijn, rij of diagonaal door beide velden of 0 als
+   * ze niet op een lijn liggen.
+   *
+   * @param veld1
+   * @param veld2
+   * @return
+   */
+  public static long lijn(int veld1, int veld2) {
+    return LIJN[veld1][veld2];
+  }
+
+  public static long paardAanval(int veld) {
+    return PAARD[veld];
+  }
+
+  /**
+   * Geeft de velden die een pion op het veld aanvalt.
+   *
+   * @param veld
+   * @param wit true voor een witte pion.
+   * @return
+   */
+  public static long pionAanval(int veld, boolean wit) {
+    return PION[wit ? 0 : 1][veld];
+  }
+
+  private static long straalAanval(int veld, long bezet, int richting) {
+    var aanval  = STRAAL[richting][veld];
+    var blok    = aanval & bezet;
+
+    if (blok != 0) {
+      // De eerste 4 richtingen lopen naar hogere velden.
+      var blokker = richting < 4 ? Long.numberOfTrailingZeros(blok)
+                                 : 63 - Long.numberOfLeadingZeros(blok);
+      aanval     ^= STRAAL[richting][blokker];
+    }
+
+    return aanval;
+  }
+
+  /**
+   * Geeft de velden tussen beide velden als ze op een lijn, rij of diagonaal
+   * liggen. Anders 0.
+   *
+   * @param veld1
+   * @param veld2
+   * @return
+   */
+  public static long tussen(int veld1, int veld2) {
+    return TUSSEN[veld1][veld2];
+  }
+
+  public static long torenAanval(int veld, long bezet) {
+    return straalAanval(veld, bezet, 0) | straalAanval(veld, bezet, 1)
+           | straalAanval(veld, bezet, 4) | straalAanval(veld, bezet, 5);
+  }
+
+  public static int veldToIntern(int veld) {
+    return (veld / 8 + 2) * 10 + veld % 8 + 1;
+  }
+}
@@ -75,6 +75,15 @@ public final class CaissaConstants {
   private CaissaConstants() {
   }
 
+  public enum Generatortype {
+    BITBORD, MAILBOX
+  }
+
+  public enum Pgntoken {
+    COMMENTAAR, EINDE, NAG, TAG, UITSLAG, VARIANTBEGIN, VARIANTEINDE, ZET,
+    ZETNUMMER
+  }
+
   public enum  Stukcodes {
     CZ("PJSVDK"), DA(BSLTDK)  , DE(BSLTDK)  , EN(STUKKEN) , ES("PCATDR"),
     ET("PROVLK"), FI("PRLTDK"), FR("PCFTDR"), HU("GHFBVK"), IS("PRBHDK"),
@@ -86,4 +95,12 @@ public final class CaissaConstants {
 
     private final String stukken;
   }
+
+  public enum Vervanging {
+    ALTIJD, DIEPTE
+  }
+
+  public enum Zetfase {
+    SLAGEN, SCHAAK, STIL
+  }
 }
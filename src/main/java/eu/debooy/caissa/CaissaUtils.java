@@ -20,18 +20,13 @@ import eu.debooy.caissa.exceptions.CompetitieException;
 import eu.debooy.caissa.exceptions.PgnException;
 import eu.debooy.doosutils.Datum;
 import eu.debooy.doosutils.DoosConstants;
-import eu.debooy.doosutils.access.TekstBestand;
-import eu.debooy.doosutils.exception.BestandException;
 import java.nio.charset.Charset;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.TreeSet;
@@ -138,6 +133,21 @@ public final class CaissaUtils {
     return resultaat;
   }
 
+  /**
+   * Controleert of de notatie van de partij de PGN notatie van de zet is. Mat
+   * is tenslotte een 'speciale' schaak dus een '#' geldt als '+'.
+   */
+  private static Zet controleerZet(FEN fen, String pgnZet, Zet zet)
+      throws PgnException {
+    if (!zet.getPgnNotatie().equals(pgnZet.replace('#', '+'))) {
+      throw new PgnException(MessageFormat.format(
+          resourceBundle.getString(PGN.ERR_ONGELDIGEZET),
+          pgnZet, fen.getFen()));
+    }
+
+    return zet;
+  }
+
   public static void draaiBord(int[] bord) {
     for (var i = 2; i < 6; i++) {
       for (var j = 1; j < 9; j++) {
@@ -335,6 +345,15 @@ public final class CaissaUtils {
     return stuk[stukcode + 6];
   }
 
+  public static Zettengeneratie getZettengenerator(
+      FEN fen, CaissaConstants.Generatortype type) {
+    if (type == CaissaConstants.Generatortype.BITBORD) {
+      return new BitbordZettengenerator(fen);
+    }
+
+    return new Zettengenerator(fen);
+  }
+
   /**
    * enkel: 0 = Tweekamp, 1 = Enkelrondig, 2 = Dubbelrondig
    * 1 is default waarde.
@@ -407,9 +426,15 @@ public final class CaissaUtils {
   }
 
   public static boolean isMat(FEN fen) {
-    var zetten  = new Zettengenerator(fen).getAantalZetten();
+    return new BitbordZettengenerator(fen).isMat();
+  }
 
-    return (zetten == 0);
+  public static boolean isPat(FEN fen) {
+    return new BitbordZettengenerator(fen).isPat();
+  }
+
+  private static boolean isVeld(char lijn, char rij) {
+    return lijn >= 'a' && lijn <= 'h' && rij >= '1' && rij <= '8';
   }
 
   public static Collection<PGN> laadPgnBestand(String bestand)
@@ -417,73 +442,93 @@ public final class CaissaUtils {
     return laadPgnBestand(bestand, Charset.defaultCharset().name());
   }
 
+  /**
+   * Laadt alle partijen van het bestand. Gebruik eu.debooy.caissa.Pgnlezer om
+   * de partijen één voor één te lezen.
+   *
+   * @param bestand
+   * @param charSet
+   * @return
+   * @throws PgnException
+   */
   public static Collection<PGN> laadPgnBestand(String bestand, String charSet)
       throws PgnException {
-    try (var input = new TekstBestand.Builder()
-                              .setBestand(bestand
-                                  + (bestand.endsWith(DoosConstants.EXT_PGN)
-                                        ? "" : DoosConstants.EXT_PGN))
-                              .setCharset(charSet).build()) {
-      return verwerkBestand(input);
-    } catch (BestandException e) {
-      throw new PgnException(e.getLocalizedMessage());
-    }
-  }
+    Collection<PGN> partijen  = new ArrayList<>();
 
-  private static void laadPgnBestandZetten(String zetten, String uitslag,
-                                            PGN partij,
-                                            Collection<PGN> partijen)
-      throws PgnException {
-    if (null == uitslag) {
-      return;
+    try (var lezer = new Pgnlezer(bestand, charSet)) {
+      while (lezer.volgende()) {
+        partijen.add(lezer.getPartij());
+      }
     }
 
-    partij.setZetten(
-        zetten.substring(0, zetten.length() - uitslag.length())
-                 .trim());
-
-    if (partij.isValid()) {
-      partijen.add(partij);
-    } else {
-      throw
-          new PgnException(resourceBundle.getString(PGN.ERR_PGN_INVALID));
-    }
+    return partijen;
   }
 
+  /**
+   * Zet voor elke zet het niveau van de korte notatie. Als een ander stuk van
+   * dezelfde soort hetzelfde veld kan bereiken dan wordt de lijn van vertrek
+   * toegevoegd, of de rij als de lijn niet uniek is, of beide als ook de rij
+   * niet uniek is.
+   *
+   * @param zetten
+   */
   public static void maakUniek(List<Zet> zetten) {
-    Map<String, List<Zet>>  uniekeZetten  = new HashMap<>();
-    List<Zet>               gelijk;
+    var aantal  = zetten.size();
 
-    for (var zet : zetten) {
-      var       korteNotatie  = zet.getZet();
-      if (uniekeZetten.containsKey(korteNotatie)) {
-        gelijk  = uniekeZetten.get(korteNotatie);
+    for (var i = 0; i < aantal; i++) {
+      var zet     = zetten.get(i);
+      if (zet.getStuk() == ' ' || zet.isRokade()) {
+        continue;
+      }
+
+      var ander   = false;
+      var lijn    = false;
+      var rij     = false;
+      for (var j = 0; j < aantal; j++) {
+        var andere  = zetten.get(j);
+        if (i != j
+            && andere.getNaar() == zet.getNaar()
+            && andere.getStuk() == zet.getStuk()
+            && andere.getPromotieStuk() == zet.getPromotieStuk()
+            && !andere.isRokade()) {
+          ander = true;
+          lijn  = lijn || andere.getVan() % 10 == zet.getVan() % 10;
+          rij   = rij  || andere.getVan() / 10 == zet.getVan() / 10;
+        }
+      }
+
+      if (!ander) {
+        zet.setKorteNotatieLevel(0);
+      } else if (!lijn) {
+        zet.setKorteNotatieLevel(1);
+      } else if (!rij) {
+        zet.setKorteNotatieLevel(2);
       } else {
-        gelijk        = new LinkedList<>();
+        zet.setKorteNotatieLevel(3);
       }
-      gelijk.add(zet);
-      uniekeZetten.put(korteNotatie, gelijk);
     }
+  }
 
-    if (zetten.size() == uniekeZetten.size()) {
-      return;
+  /**
+   * Maakt de Zet met schaak en de korte notatie. Voor de korte notatie worden
+   * enkel de andere zetten van dezelfde soort stuk naar hetzelfde veld
+   * bekeken.
+   */
+  private static Zet maakZet(BitbordZettengenerator generator, int zetcode,
+                             Zettenlijst rivalen) {
+    List<Zet> zetten  = new ArrayList<>(rivalen.size());
+    var       zet     = Zetcode.toZet(zetcode);
+
+    zet.setSchaak(generator.geeftSchaak(zetcode));
+    zetten.add(zet);
+    for (var i = 0; i < rivalen.size(); i++) {
+      if (rivalen.get(i) != zetcode) {
+        zetten.add(Zetcode.toZet(rivalen.get(i)));
+      }
     }
-
-    // Zet de KorteNotatie 'niveau' 1 hoger.
-    uniekeZetten.values()
-                .stream()
-                .filter(lijst -> (lijst.size() > 1))
-                .forEachOrdered(lijst ->
-      lijst.forEach(zet ->
-          zet.setKorteNotatieLevel(zet.getKorteNotatieLevel()+1)));
-
     maakUniek(zetten);
-  }
 
-  private static void schrijfTag(PGN partij, String line) throws PgnException {
-    var tag   = line.substring(1, line.indexOf(' '));
-    var value = line.substring(line.indexOf('"') + 1, line.lastIndexOf('"'));
-    partij.addTag(tag, value);
+    return zet;
   }
 
   public static String vertaalStukken(String zetten,
@@ -513,18 +558,6 @@ public final class CaissaUtils {
     return String.valueOf(result);
   }
 
-  private static Collection<PGN> verwerkBestand(TekstBestand input)
-      throws BestandException, PgnException {
-    var             lijnnummer  = 0;
-    Collection<PGN> partijen    = new ArrayList<>();
-
-    while (input.hasNext()) {
-      lijnnummer  = verwerkPartij(input, lijnnummer, partijen);
-    }
-
-    return partijen;
-  }
-
   private static void verwerkBye(int iWit, int iZwart, String uitslag,
                                  Competitie competitie, boolean telUitslag) {
     if (competitie.metBye() && telUitslag) {
@@ -543,59 +576,6 @@ public final class CaissaUtils {
     }
   }
 
-  private static int verwerkPartij(TekstBestand input, int lijnnummer,
-                                    Collection<PGN> partijen)
-      throws BestandException, PgnException {
-    var lijn    = input.next();
-    lijnnummer++;
-    var partij  = new PGN();
-
-    // Zoek naar de eerste TAG
-    while (input.hasNext() && !lijn.startsWith("[")) {
-      lijn  = input.next();
-      lijnnummer++;
-    }
-
-    // Is er nog een partij gevonden?
-    if (!input.hasNext()) {
-      return lijnnummer;
-    }
-
-    // Verwerk de TAGs
-    while (input.hasNext() && lijn.startsWith("[")) {
-      schrijfTag(partij, lijn);
-
-      lijn  = input.next();
-      lijnnummer++;
-    }
-
-    // Verwerk de zetten
-    var uitslag = partij.getTag(PGN.PGNTAG_RESULT);
-    var zetten  = new StringBuilder();
-    while (input.hasNext() && !lijn.trim().endsWith(uitslag)) {
-      if (lijn.startsWith("[")) {
-        throw new PgnException(MessageFormat.format(
-            resourceBundle.getString(PGN.ERR_BESTAND),
-            lijnnummer));
-      }
-      zetten.append(lijn.trim());
-      if (!lijn.endsWith(".")) {
-        zetten.append(" ");
-      }
-
-      lijn  = input.next();
-      lijnnummer++;
-    }
-
-    if (lijn.trim().endsWith(uitslag)) {
-      zetten.append(lijn.trim());
-    }
-
-    laadPgnBestandZetten(zetten.toString().trim(), uitslag, partij, partijen);
-
-    return lijnnummer;
-  }
-
   private static void verwerkPartijInMatrix(PGN partij, double[][] matrix,
                                             Competitie competitie,
                                             boolean telUitslag) {
@@ -720,21 +700,116 @@ public final class CaissaUtils {
     return schoon;
   }
 
+  /**
+   * Zoekt de zet in korte notatie in de stelling. Het stuk, het veld, de lijn
+   * of rij van vertrek en het promotiestuk worden uit de notatie gehaald.
+   * Enkel voor de stukken van die soort die het veld bereiken wordt gekeken of
+   * de zet legaal is. De notatie moet daarna gelijk zijn aan de PGN notatie
+   * van de gevonden zet. Zo moeten de 'x', de '+' en de lijn of rij van
+   * vertrek er juist staan. Een '#' geldt als '+'.
+   *
+   * @param fen
+   * @param pgnZet
+   * @return
+   * @throws PgnException als de zet niet legaal of dubbelzinnig is.
+   */
   public static Zet vindZet(FEN fen, String pgnZet) throws PgnException {
-    var       zettengenerator = new Zettengenerator(fen);
-    List<Zet> zetten          = zettengenerator.getZetten();
-    // Mat wordt pas 'bekend' als er een tweede zettengeneratie wordt gedaan.
-    // Deze manier vermijdt dit. Mat is tenslotte een 'speciale' schaak.
-    var       teVinden        = pgnZet.replace('#', '+');
+    var generator = new BitbordZettengenerator(fen);
+    var einde     = pgnZet.length();
+
+    if (einde > 0 && "+#".indexOf(pgnZet.charAt(einde - 1)) >= 0) {
+      einde--;
+    }
+
+    var notatie   = pgnZet.substring(0, einde);
+    if (notatie.equals("O-O") || notatie.equals("O-O-O")) {
+      var rokade  = generator.getRokade(notatie.length() == 3);
+      if (rokade == 0) {
+        throw new PgnException(MessageFormat.format(
+            resourceBundle.getString(PGN.ERR_ONGELDIGEZET),
+            pgnZet, fen.getFen()));
+      }
+
+      var zet     = Zetcode.toZet(rokade);
+      zet.setSchaak(generator.geeftSchaak(rokade));
+
+      return controleerZet(fen, pgnZet, zet);
+    }
+
+    var promotie  = 0;
+    if (einde > 0
+        && CaissaConstants.PROMOTIE_STUKKEN
+                          .indexOf(pgnZet.charAt(einde - 1)) >= 0) {
+      promotie  = CaissaConstants.NOTATIE_STUKKEN
+                                 .indexOf(pgnZet.charAt(einde - 1)) + 1;
+      einde--;
+      if (einde > 0 && pgnZet.charAt(einde - 1) == '=') {
+        einde--;
+      }
+    }
 
-    for (Zet zet : zetten) {
-      if (teVinden.equals(zet.getPgnNotatie())) {
-        return zet;
+    if (einde < 2
+        || !isVeld(pgnZet.charAt(einde - 2), pgnZet.charAt(einde - 1))) {
+      throw new PgnException(MessageFormat.format(
+          resourceBundle.getString(PGN.ERR_ONGELDIGEZET),
+          pgnZet, fen.getFen()));
+    }
+
+    var begin     = 0;
+    var stuk      = CaissaConstants.PION;
+    if (CaissaConstants.NOTATIE_STUKKEN.indexOf(pgnZet.charAt(0)) > 0) {
+      stuk  = CaissaConstants.NOTATIE_STUKKEN.indexOf(pgnZet.charAt(0)) + 1;
+      begin = 1;
+    }
+
+    var lijn      = 0;
+    var rij       = 0;
+    var slag      = false;
+    for (var i = begin; i < einde - 2; i++) {
+      var teken = pgnZet.charAt(i);
+      if (teken >= 'a' && teken <= 'h' && lijn == 0) {
+        lijn  = teken - 'a' + 1;
+      } else if (teken >= '1' && teken <= '8' && rij == 0) {
+        rij   = teken - '1' + 2;
+      } else if (teken == 'x' && !slag) {
+        slag  = true;
+      } else {
+        throw new PgnException(MessageFormat.format(
+            resourceBundle.getString(PGN.ERR_ONGELDIGEZET),
+            pgnZet, fen.getFen()));
       }
     }
 
-    throw new PgnException(MessageFormat.format(
-        resourceBundle.getString(PGN.ERR_ONGELDIGEZET), pgnZet, fen.getFen()));
+    var kandidaten  = generator.getZetcodes(stuk,
+                                            externToIntern(pgnZet.substring(
+                                                einde - 2, einde)),
+                                            promotie);
+    var gevonden    = 0;
+    var aantal      = 0;
+    // Eerst slaan of niet zodat een pion niet op een bezet veld kan gaan.
+    for (var i = 0; i < kandidaten.size(); i++) {
+      var van = Zetcode.getVan(kandidaten.get(i));
+      if (Zetcode.isSlagzet(kandidaten.get(i)) == slag
+          && (lijn == 0 || van % 10 == lijn)
+          && (rij == 0 || van / 10 == rij)) {
+        gevonden  = kandidaten.get(i);
+        aantal++;
+      }
+    }
+
+    if (aantal == 0) {
+      throw new PgnException(MessageFormat.format(
+          resourceBundle.getString(PGN.ERR_ONGELDIGEZET),
+          pgnZet, fen.getFen()));
+    }
+    if (aantal > 1) {
+      throw new PgnException(MessageFormat.format(
+          resourceBundle.getString(PGN.ERR_DUBBELZINNIGEZET),
+          pgnZet, fen.getFen()));
+    }
+
+    return controleerZet(fen, pgnZet,
+                         maakZet(generator, gevonden, kandidaten));
   }
 
   public static double[][] vulToernooiMatrix(Collection<PGN> partijen,
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+
+/**
+ * Leest een bestand met stellingen in EPD of FEN formaat regel per regel.
+ * Het bestand wordt in blokken via een kanaal gelezen en de stellingen worden
+ * rechtstreeks uit de gelezen bytes in steeds dezelfde FEN gezet.
+ *
+ * Na de 4 velden van de stelling mogen de 2 tellers van een FEN volgen en
+ * daarna de operaties van een EPD. Een operatie is een opcode met 0 of meer
+ * operanden en eindigt met een ';'. Regels zoals in perft.epd met een ';' voor
+ * elke operatie kunnen ook gelezen worden.
+ *
+ * Een regel met een fout stopt het lezen niet. De fout wordt bij het
+ * regelnummer bewaard en de regel wordt overgeslagen. Lege regels worden ook
+ * overgeslagen.
+ *
+ * @author Marco de Booij
+ */
+public class Epdlezer implements Closeable {
+  public static final String  ERR_KONING    = "epd.koning.incorrect";
+  public static final String  ERR_OPERATIE  = "epd.operatie.incorrect";
+  public static final String  ERR_PION      = "epd.pion.incorrect";
+
+  public static final String  OPC_BM    = "bm";
+  public static final String  OPC_C0    = "c0";
+  public static final String  OPC_FMVN  = "fmvn";
+  public static final String  OPC_HMVC  = "hmvc";
+  public static final String  OPC_ID    = "id";
+
+  private static final  int BUFFERGROOTTE = 1 << 16;
+
+  protected static  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle("CaissaCore");
+
+  private final FEN                   fen     = new FEN();
+  private final Map<Integer, String>  fouten  = new LinkedHashMap<>();
+  private final ReadableByteChannel   kanaal;
+
+  private int     aantal        = 0;
+  private byte[]  buffer        = new byte[BUFFERGROOTTE];
+  private int     einde         = 0;
+  private boolean gelezen       = false;
+  private int     opcodeBegin;
+  private int     opcodeEinde;
+  private int     operandBegin;
+  private int     operandEinde;
+  private int     operaties     = 0;
+  private boolean openTekst;
+  private int     positie       = 0;
+  private int     regelBegin    = 0;
+  private int     regelEinde    = 0;
+  private int     regelnummer   = 0;
+
+  public Epdlezer(InputStream invoer) {
+    kanaal  = Channels.newChannel(invoer);
+  }
+
+  public Epdlezer(Path bestand) throws IOException {
+    kanaal  = FileChannel.open(bestand, StandardOpenOption.READ);
+  }
+
+  public Epdlezer(ReadableByteChannel kanaal) {
+    this.kanaal = kanaal;
+  }
+
+  private static boolean isCijfer(byte teken) {
+    return teken >= '0' && teken <= '9';
+  }
+
+  private static boolean isLetter(byte teken) {
+    return (teken >= 'a' && teken <= 'z') || (teken >= 'A' && teken <= 'Z');
+  }
+
+  @Override
+  public void close() throws IOException {
+    kanaal.close();
+  }
+
+  private void controleerOperaties() throws FenException {
+    var i = operaties;
+    while ((i = leesOperatie(i)) >= 0) {
+      var geldig  = isLetter(buffer[opcodeBegin]) && !openTekst;
+      for (var j = opcodeBegin + 1; geldig && j < opcodeEinde; j++) {
+        geldig  = isLetter(buffer[j]) || isCijfer(buffer[j])
+                  || buffer[j] == '_';
+      }
+      if (!geldig) {
+        throw new FenException(MessageFormat.format(
+            resourceBundle.getString(ERR_OPERATIE),
+            tekst(opcodeBegin, operandEinde)));
+      }
+    }
+  }
+
+  private void controleerStelling() throws FenException {
+    var bord    = fen.bord();
+    var wit     = 0;
+    var zwart   = 0;
+
+    for (var veld = 21; veld < 99; veld++) {
+      if (bord[veld] == CaissaConstants.KONING) {
+        wit++;
+      } else if (bord[veld] == -CaissaConstants.KONING) {
+        zwart++;
+      } else if (Math.abs(bord[veld]) == CaissaConstants.PION
+                 && (veld < 30 || veld > 90)) {
+        throw new FenException(resourceBundle.getString(ERR_PION));
+      }
+    }
+
+    if (wit != 1 || zwart != 1) {
+      throw new FenException(resourceBundle.getString(ERR_KONING));
+    }
+  }
+
+  /**
+   * Geeft het aantal correcte stellingen dat tot nu toe gelezen is.
+   *
+   * @return
+   */
+  public int getAantal() {
+    return aantal;
+  }
+
+  /**
+   * Geeft de zetten van de 'bm' operatie of een lege array.
+   *
+   * @return
+   */
+  public String[] getBesteZetten() {
+    var zetten  = getOperatie(OPC_BM);
+    if (null == zetten || zetten.isEmpty()) {
+      return new String[0];
+    }
+
+    return zetten.split(" +");
+  }
+
+  /**
+   * Geeft de stelling van de huidige regel. Het is steeds dezelfde FEN die
+   * bij de volgende regel overschreven wordt. Gebruik getStelling() of
+   * getFen() om een stelling te bewaren.
+   *
+   * @return
+   */
+  public FEN getFen() {
+    return fen;
+  }
+
+  /**
+   * Geeft de foutmelding van elke foute regel met het regelnummer als
+   * sleutel.
+   *
+   * @return
+   */
+  public Map<Integer, String> getFouten() {
+    return Collections.unmodifiableMap(fouten);
+  }
+
+  /**
+   * Geeft de operanden van de opcode of null als de regel de opcode niet
+   * heeft. Een operand tussen '"' wordt zonder de '"' teruggegeven.
+   *
+   * @param opcode
+   * @return
+   */
+  public String getOperatie(String opcode) {
+    var code  = opcode.getBytes(StandardCharsets.US_ASCII);
+    var i     = operaties;
+    while ((i = leesOperatie(i)) >= 0) {
+      if (Arrays.equals(buffer, opcodeBegin, opcodeEinde,
+                        code, 0, code.length)) {
+        return operand();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Geeft alle operaties van de huidige regel in de volgorde van de regel.
+   *
+   * @return
+   */
+  public Map<String, String> getOperaties() {
+    Map<String, String> resultaat = new LinkedHashMap<>();
+
+    var i = operaties;
+    while ((i = leesOperatie(i)) >= 0) {
+      resultaat.put(tekst(opcodeBegin, opcodeEinde), operand());
+    }
+
+    return resultaat;
+  }
+
+  public String getRegel() {
+    return tekst(regelBegin, regelEinde);
+  }
+
+  public int getRegelnummer() {
+    return regelnummer;
+  }
+
+  /**
+   * Zoekt de volgende operatie vanaf positie i en zet de grenzen van de
+   * opcode en de operanden. Geeft de positie na de operatie of -1 als er
+   * geen operatie meer is.
+   */
+  private int leesOperatie(int i) {
+    while (i < regelEinde && (buffer[i] == ' ' || buffer[i] == ';')) {
+      i++;
+    }
+    if (i >= regelEinde) {
+      return -1;
+    }
+
+    opcodeBegin   = i;
+    while (i < regelEinde && buffer[i] != ' ' && buffer[i] != ';') {
+      i++;
+    }
+    opcodeEinde   = i;
+    while (i < regelEinde && buffer[i] == ' ') {
+      i++;
+    }
+    operandBegin  = i;
+    openTekst     = false;
+    while (i < regelEinde && (openTekst || buffer[i] != ';')) {
+      if (buffer[i] == '"') {
+        openTekst = !openTekst;
+      }
+      i++;
+    }
+    operandEinde  = i;
+    while (operandEinde > operandBegin && buffer[operandEinde - 1] == ' ') {
+      operandEinde--;
+    }
+
+    return i;
+  }
+
+  /**
+   * Zoekt de volgende regel en leest zo nodig een nieuw blok. Geeft false
+   * als het einde van het bestand bereikt is.
+   */
+  private boolean leesRegel() throws IOException {
+    var i = positie;
+    while (true) {
+      while (i < einde && buffer[i] != '\n') {
+        i++;
+      }
+      if (i < einde || gelezen) {
+        break;
+      }
+
+      var rest  = einde - positie;
+      if (positie == 0 && rest == buffer.length) {
+        buffer  = Arrays.copyOf(buffer, buffer.length * 2);
+      } else {
+        System.arraycopy(buffer, positie, buffer, 0, rest);
+      }
+      i       -= positie;
+      einde    = rest;
+      positie  = 0;
+
+      var aantalGelezen =
+          kanaal.read(ByteBuffer.wrap(buffer, einde, buffer.length - einde));
+      if (aantalGelezen < 0) {
+        gelezen = true;
+      } else {
+        einde  += aantalGelezen;
+      }
+    }
+
+    if (positie >= einde) {
+      return false;
+    }
+
+    regelnummer++;
+    regelBegin  = positie;
+    regelEinde  = i;
+    positie     = Math.min(i + 1, einde);
+    while (regelEinde > regelBegin && buffer[regelEinde - 1] <= ' ') {
+      regelEinde--;
+    }
+    while (regelBegin < regelEinde && buffer[regelBegin] <= ' ') {
+      regelBegin++;
+    }
+
+    return true;
+  }
+
+  private String operand() {
+    if (operandEinde - operandBegin > 1
+        && buffer[operandBegin] == '"' && buffer[operandEinde - 1] == '"'
+        && !openTekst) {
+      return tekst(operandBegin + 1, operandEinde - 1);
+    }
+
+    return tekst(operandBegin, operandEinde);
+  }
+
+  private String tekst(int begin, int tot) {
+    return new String(buffer, begin, tot - begin, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Zet de stelling uit de huidige regel in de FEN. De 4 velden van de
+   * stelling en de tellers als ze er zijn.
+   */
+  private boolean verwerk() {
+    var i = regelBegin;
+    for (var veld = 0; veld < 4; veld++) {
+      while (i < regelEinde && buffer[i] == ' ') {
+        i++;
+      }
+      while (i < regelEinde && buffer[i] != ' ' && buffer[i] != ';') {
+        i++;
+      }
+    }
+    for (var teller = 0; teller < 2; teller++) {
+      var j = i;
+      while (j < regelEinde && buffer[j] == ' ') {
+        j++;
+      }
+      var k = j;
+      while (k < regelEinde && isCijfer(buffer[k])) {
+        k++;
+      }
+      if (k == j
+          || (k < regelEinde && buffer[k] != ' ' && buffer[k] != ';')) {
+        break;
+      }
+      i = k;
+    }
+    operaties = i;
+
+    try {
+      fen.lees(buffer, regelBegin, i - regelBegin);
+      controleerStelling();
+      controleerOperaties();
+      var halvezetten = getOperatie(OPC_HMVC);
+      if (null != halvezetten) {
+        fen.setHalvezetten(Integer.valueOf(halvezetten));
+      }
+      var zetnummer   = getOperatie(OPC_FMVN);
+      if (null != zetnummer) {
+        fen.setZetnummer(Integer.valueOf(zetnummer));
+      }
+    } catch (FenException e) {
+      fouten.put(regelnummer, e.getLocalizedMessage());
+      return false;
+    } catch (NumberFormatException e) {
+      fouten.put(regelnummer, MessageFormat.format(
+          resourceBundle.getString(ERR_OPERATIE), getRegel()));
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Leest de volgende correcte stelling. Foute regels worden bij de fouten
+   * gezet en overgeslagen.
+   *
+   * @return false als er geen stellingen meer zijn.
+   * @throws IOException
+   */
+  public boolean volgende() throws IOException {
+    while (leesRegel()) {
+      if (regelBegin < regelEinde && verwerk()) {
+        aantal++;
+        return true;
+      }
+    }
+    operaties = regelEinde;
+
+    return false;
+  }
+}
@@ -19,8 +19,10 @@ package eu.debooy.caissa;
 import eu.debooy.caissa.exceptions.FenException;
 import eu.debooy.doosutils.DoosUtils;
 import java.io.Serializable;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
-import java.util.List;
+import java.util.Arrays;
 import java.util.ResourceBundle;
 
 
@@ -60,42 +62,94 @@ import java.util.ResourceBundle;
  * 6. Volledige zetten teller. Het aantal volledige zetten. Dit begint met "1"
  *    en wordt opgehoogd na elke zet van zwart.
  *
+ * Met doeZet wordt een zet in de stelling zelf uitgevoerd. Per zet wordt in
+ * een long bijgehouden wat nodig is om de zet met neemTerug ongedaan te maken:
+ * de velden, het verplaatste en het geslagen stuk, het en passant veld, de
+ * rokademogelijkheden en de halve zetten teller.
+ *
+ * Voor elke stelling wordt een Zobrist sleutel bijgehouden die door doeZet
+ * aangepast wordt. Deze wordt gebruikt in hashCode en als eerste controle in
+ * equals.
+ *
+ * De positie en de volledige FEN worden pas als String opgebouwd als ze
+ * gevraagd worden en dan bewaard tot de stelling wijzigt.
+ *
+ * Met toBytes en fromBytes wordt de stelling in 30 bytes bewaard: 8 bytes met
+ * de bezette velden, 16 bytes met per bezet veld het stuk in 4 bits en 6 bytes
+ * met wie aan zet is, de rokades, het en passant veld, de lijnen van de
+ * torens, het FEN type, de halve zetten teller en het zetnummer.
+ *
+ * Een FEN kan gelezen worden uit een String, een CharSequence of een deel van
+ * een char[] of byte[]. Het lezen gebeurt teken per teken rechtstreeks in het
+ * bord zonder tussenliggende Strings. De halve zetten teller en het zetnummer
+ * mogen ontbreken.
+ *
  * @author Marco de Booij
  */
 public class FEN implements Serializable {
-  private static final long serialVersionUID  = 1L;
+  // Sinds 0.4.0 zijn enPassant, halvezetten en zetnummer int, is er een zobrist
+  // en is koninglijn weg. Oudere FENs kunnen niet meer gelezen worden.
+  private static final long serialVersionUID  = 2L;
 
   private static final String  BEGINSTELLING  =
       "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR";
 
+  public static final int     BINAIRE_LENGTE  = 30;
+
   public static final String  FEN_SHREDDER  = "Shredder";
   public static final String  FEN_STANDAARD = "standaard";
   public static final String  FEN_X         = "X";
 
+  private static final String[] FEN_TYPES =
+      {FEN_STANDAARD, FEN_SHREDDER, FEN_X};
+
   public static final String  ERR_AANZET    = "fen.aanzet.incorrect";
+  public static final String  ERR_BINAIR    = "fen.binair.incorrect";
   public static final String  ERR_ENPASSANT = "fen.ep.incorrect";
+  public static final String  ERR_FEN       = "fen.incorrect";
   public static final String  ERR_ROKADE    = "fen.rokade.incorrect";
+  public static final String  ERR_TERUGZET  = "fen.terugzet.geen";
   public static final String  ERR_ZET       = "fen.zet.incorrect";
 
   protected static  ResourceBundle  resourceBundle  =
       ResourceBundle.getBundle("CaissaCore");
 
+  // Per nummer de lege velden (vanaf 0) van de paarden bij Chess960 in de
+  // tientallen en de eenheden.
+  private static final int[]  PAARDEN960  =
+      {1, 2, 3, 4, 12, 13, 14, 23, 24, 34};
+  private static final int[]  STUKWAARDE  = new int[128];
+
+  static {
+    for (var i = 0; i < CaissaConstants.STUKKEN.length(); i++) {
+      var stuk  = CaissaConstants.STUKKEN.charAt(i);
+      STUKWAARDE[stuk]                          = i + 1;
+      STUKWAARDE[Character.toLowerCase(stuk)]   = -(i + 1);
+    }
+  }
+
   private final int[]   bord              = new int[120];
   private final String  eol               = System.lineSeparator();
   private final String  startRokade       = "kq";
   private final String  startRokade960    = "abcdefgh";
 
+  // De terugzetten worden niet bewaard en pas bij de eerste doeZet gemaakt.
+  private transient int     aantalTerugzetten = 0;
+  private transient String  fenTekst          = null;
+  private transient long[]  terugzetten       = null;
+  private transient long[]  zobristen         = null;
+
   private char    aanZet            = CaissaConstants.WIT;
-  private String  enPassant         = "-";
+  private int     enPassant         = 0;
   private String  fenType           = FEN_STANDAARD;
-  private Integer halvezetten       = 0;
-  private char    koninglijn;
+  private int     halvezetten       = 0;
   private char    kortetoren        = '@';
   private char    langetoren        = '@';
   private String  positie           = BEGINSTELLING;
   private Boolean witKorteRokade;
   private Boolean witLangeRokade;
-  private Integer zetnummer         = 1;
+  private int     zetnummer         = 1;
+  private long    zobrist;
   private Boolean zwartKorteRokade;
   private Boolean zwartLangeRokade;
 
@@ -107,91 +161,150 @@ public class FEN implements Serializable {
     witLangeRokade    = true;
     zwartKorteRokade  = true;
     zwartLangeRokade  = true;
+    berekenZobrist();
   }
 
   public FEN(String fen) throws FenException {
-    var veld    = fen.split(" ");
+    this((CharSequence) fen);
+  }
 
-    positie     = veld[0];
-    positieToBord();
-    aanZet      = veld[1].charAt(0);
-    setRokade(veld[2]);
-    enPassant   = veld[3];
-    halvezetten = Integer.valueOf(veld[4]);
-    zetnummer   = Integer.valueOf(veld[5]);
+  /**
+   * Maakt een FEN van een eu.debooy.caissa.Stelling. Het bord wordt
+   * gekopieerd omdat een FEN gewijzigd kan worden.
+   *
+   * @param stelling
+   */
+  public FEN(Stelling stelling) {
+    System.arraycopy(stelling.bord(), 0, bord, 0, bord.length);
+    aanZet            = stelling.getAanZet();
+    enPassant         = stelling.getEnPassantVeld();
+    fenType           = FEN_TYPES[stelling.getFenType()];
+    halvezetten       = stelling.getHalvezetten();
+    kortetoren        = stelling.getKorteToren();
+    langetoren        = stelling.getLangeToren();
+    witKorteRokade    = stelling.isWitKorteRokade();
+    witLangeRokade    = stelling.isWitLangeRokade();
+    zetnummer         = stelling.getZetnummer();
+    zobrist           = stelling.getZobrist();
+    zwartKorteRokade  = stelling.isZwartKorteRokade();
+    zwartLangeRokade  = stelling.isZwartLangeRokade();
+    positie           = null;
+  }
+
+  public FEN(CharSequence fen) throws FenException {
+    lees(fen, 0, fen.length());
+  }
+
+  public FEN(char[] fen, int begin, int lengte) throws FenException {
+    this(CharBuffer.wrap(fen, begin, lengte));
+  }
+
+  /**
+   * Leest de FEN uit een deel van een byte[] met ASCII tekens.
+   *
+   * @param fen
+   * @param begin
+   * @param lengte
+   * @throws FenException
+   */
+  public FEN(byte[] fen, int begin, int lengte) throws FenException {
+    this(new Bytereeks(fen, begin, lengte));
   }
 
   private void aanZetWit(int veldVan, int veldNaar, int stukVan) {
     aanZet  = CaissaConstants.ZWART;
-    if (veldVan == 21
-        && stukVan == CaissaConstants.TOREN) {
-      witLangeRokade  = false;
-    }
-    if (veldVan == 25
-        && stukVan == CaissaConstants.KONING) {
+    if (stukVan == CaissaConstants.KONING) {
       witKorteRokade  = false;
       witLangeRokade  = false;
     }
-    if (veldVan == 28
-        && stukVan == CaissaConstants.TOREN) {
-      witKorteRokade  = false;
-    }
-    // Korte rochade
-    if (stukVan == CaissaConstants.KONING
-        && (veldVan - veldNaar) == -2) {
-      bord[26]  = CaissaConstants.TOREN;
-      bord[28]  = 0;
-    }
-    // Lange rochade
-    if (stukVan == CaissaConstants.KONING
-        && (veldVan - veldNaar) == 2) {
-      bord[24]  = CaissaConstants.TOREN;
-      bord[21]  = 0;
+    if (stukVan == CaissaConstants.TOREN) {
+      if (veldVan == torenveld(20, kortetoren)) {
+        witKorteRokade  = false;
+      }
+      if (veldVan == torenveld(20, langetoren)) {
+        witLangeRokade  = false;
+      }
     }
     if (stukVan == CaissaConstants.PION
         && (veldNaar - veldVan) == 20) {
-      enPassant = CaissaUtils.internToExtern(veldNaar-10);
+      enPassant = veldNaar - 10;
     } else {
-      enPassant = "-";
+      enPassant = 0;
     }
   }
 
   private void aanZetZwart(int veldVan, int veldNaar, int stukVan) {
     aanZet  = 'w';
-    if (veldVan == 91
-        && stukVan == CaissaConstants.ZTOREN) {
-      zwartLangeRokade  = false;
-    }
-    if (veldVan == 95
-        && stukVan == CaissaConstants.ZKONING) {
+    if (stukVan == CaissaConstants.ZKONING) {
       zwartKorteRokade  = false;
       zwartLangeRokade  = false;
     }
-    if (veldVan == 98
-        && stukVan == CaissaConstants.ZTOREN) {
-      zwartKorteRokade  = false;
-    }
-    // Korte rochade
-    if (stukVan == CaissaConstants.ZKONING
-        && (veldVan - veldNaar) == -2) {
-      bord[96]  = CaissaConstants.ZTOREN;
-      bord[98]  = 0;
-    }
-    // Lange rochade
-    if (stukVan == CaissaConstants.ZKONING
-        && (veldVan - veldNaar) == 2) {
-      bord[94]  = CaissaConstants.ZTOREN;
-      bord[91]  = 0;
+    if (stukVan == CaissaConstants.ZTOREN) {
+      if (veldVan == torenveld(90, kortetoren)) {
+        zwartKorteRokade  = false;
+      }
+      if (veldVan == torenveld(90, langetoren)) {
+        zwartLangeRokade  = false;
+      }
     }
     if (stukVan == CaissaConstants.ZPION
         && (veldVan - veldNaar) == 20) {
-      enPassant = CaissaUtils.internToExtern(veldNaar+10);
+      enPassant = veldNaar + 10;
     } else {
-      enPassant = "-";
+      enPassant = 0;
     }
     zetnummer++;
   }
 
+  private void bewaarTerugzet(int veldVan, int veldNaar,
+                              int stukVan, int stukNaar, int rokade) {
+    if (null == terugzetten) {
+      terugzetten = new long[64];
+      zobristen   = new long[64];
+    } else if (aantalTerugzetten == terugzetten.length) {
+      terugzetten = Arrays.copyOf(terugzetten, aantalTerugzetten * 2);
+      zobristen   = Arrays.copyOf(zobristen, aantalTerugzetten * 2);
+    }
+
+    zobristen[aantalTerugzetten]      = zobrist;
+    terugzetten[aantalTerugzetten++]  =
+        veldVan
+        | (long) veldNaar << 7
+        | (long) (stukVan + 6) << 14
+        | (long) (stukNaar + 6) << 18
+        | (long) enPassant << 22
+        | (long) getRokadeCode() << 29
+        | (long) (rokade >>> 24) << 33
+        | (long) halvezetten << 35;
+  }
+
+  /**
+   * Geeft het bord zonder kopie voor de klassen in dit package. Het mag niet
+   * gewijzigd worden.
+   */
+  int[] bord() {
+    return bord;
+  }
+
+  /**
+   * Geeft de lijn van de toren voor de korte rokade.
+   */
+  char kortetoren() {
+    return kortetoren;
+  }
+
+  /**
+   * Geeft de lijn van de toren voor de lange rokade.
+   */
+  char langetoren() {
+    return langetoren;
+  }
+
+  private void berekenZobrist() {
+    fenTekst  = null;
+    zobrist   = Zobrist.bereken(bord, aanZet, getRokadeCode(), enPassant);
+  }
+
   private void bordToPositie() {
     var nieuwePositie = new StringBuilder();
     for (var i = 9; i > 1; i--) {
@@ -230,24 +343,93 @@ public class FEN implements Serializable {
     return bord[intern + (aanZet == CaissaConstants.WIT ? -10 : +10)] == pion;
   }
 
+  /**
+   * Maakt de beginstelling van Chess960 met het nummer volgens Scharnagl. Het
+   * nummer 518 is de gewone beginstelling.
+   *
+   * @param nummer van 0 tot en met 959.
+   * @return
+   * @throws FenException
+   */
+  public static FEN chess960(int nummer) throws FenException {
+    if (nummer < 0 || nummer > 959) {
+      throw new FenException(MessageFormat.format(
+          resourceBundle.getString(ERR_FEN), nummer));
+    }
+
+    var rij     = new char[8];
+    var rest    = nummer;
+    rij[rest % 4 * 2 + 1] = 'b';
+    rest   /= 4;
+    rij[rest % 4 * 2]     = 'b';
+    rest   /= 4;
+    zetOpLeegVeld(rij, rest % 6, 'q');
+    rest   /= 6;
+    var paarden = PAARDEN960[rest];
+    zetOpLeegVeld(rij, paarden / 10, 'n');
+    zetOpLeegVeld(rij, paarden % 10 - 1, 'n');
+    zetOpLeegVeld(rij, 0, 'r');
+    zetOpLeegVeld(rij, 0, 'k');
+    zetOpLeegVeld(rij, 0, 'r');
+
+    var zwart = new String(rij);
+    return new FEN(zwart + "/pppppppp/8/8/8/8/PPPPPPPP/"
+                   + zwart.toUpperCase() + " w KQkq - 0 1");
+  }
+
   public void doeEnPassant(int veldVan, int veldNaar, int stukVan) {
-    if (!"-".equals(enPassant)
-        && veldNaar == CaissaUtils.externToIntern(enPassant)
+    if (enPassant != 0
+        && veldNaar == enPassant
         && Math.abs(stukVan) == CaissaConstants.PION) {
       if ((veldVan-veldNaar) == -9
           || (veldVan-veldNaar) == 11) {
-        bord[veldVan-1] = 0;
+        wijzig(veldVan-1, 0);
       } else {
-        bord[veldVan+1] = 0;
+        wijzig(veldVan+1, 0);
       }
+      gewijzigd();
     }
   }
 
+  /**
+   * Voert een zet in de vorm van een eu.debooy.caissa.Zetcode uit.
+   *
+   * @param zet
+   */
+  public void doeZet(int zet) {
+    doeZet(Zetcode.getVan(zet), Zetcode.getNaar(zet), Zetcode.getPromotie(zet),
+           zet & (Zetcode.KORTE_ROKADE | Zetcode.LANGE_ROKADE));
+  }
+
   public void doeZet(Zet zet) {
-    var veldVan   = zet.getVan();
-    var veldNaar  = zet.getNaar();
+    var promotie  = 0;
+    if (zet.getPromotieStuk() != ' ') {
+      promotie  = CaissaUtils.zoekStuk(zet.getPromotieStuk());
+    }
+    var rokade    = 0;
+    if (zet.isRokade()) {
+      rokade  = zet.getNaar() % 10 == 7 ? Zetcode.KORTE_ROKADE
+                                        : Zetcode.LANGE_ROKADE;
+    }
+
+    doeZet(zet.getVan(), zet.getNaar(), promotie, rokade);
+  }
+
+  /**
+   * Voert de zet uit. Bij een rokade is het veld van aankomst de g- of
+   * c-lijn en wordt de toren van de lijn van de korte of lange toren verzet.
+   * Een koningszet van 2 velden is altijd een rokade.
+   */
+  private void doeZet(int veldVan, int veldNaar, int promotie, int rokade) {
     var stukVan   = bord[veldVan];
-    var stukNaar  = bord[veldNaar];
+    if (rokade == 0
+        && Math.abs(stukVan) == CaissaConstants.KONING
+        && Math.abs(veldVan - veldNaar) == 2) {
+      rokade  = veldNaar > veldVan ? Zetcode.KORTE_ROKADE
+                                   : Zetcode.LANGE_ROKADE;
+    }
+    var stukNaar  = rokade == 0 ? bord[veldNaar] : 0;
+    bewaarTerugzet(veldVan, veldNaar, stukVan, stukNaar, rokade);
     if (stukNaar != 0
         || Math.abs(stukVan) == CaissaConstants.PION) {
       halvezetten = 0;
@@ -255,22 +437,30 @@ public class FEN implements Serializable {
       halvezetten++;
     }
 
-    if (zet.getPromotieStuk() != ' ') {
-      stukVan = CaissaUtils.zoekStuk(zet.getPromotieStuk());
+    if (promotie != 0) {
+      stukVan = promotie;
       if (aanZet == CaissaConstants.ZWART) {
         stukVan *= -1;
       }
     }
-    bord[veldVan]  = 0;
-    bord[veldNaar] = stukVan;
-    doeEnPassant(veldVan, veldNaar, stukVan);
-    bordToPositie();
+    zobrist ^= Zobrist.rokade(getRokadeCode()) ^ Zobrist.enPassant(enPassant)
+               ^ Zobrist.aanZet();
+    if (rokade == 0) {
+      wijzig(veldVan, 0);
+      wijzig(veldNaar, stukVan);
+      doeEnPassant(veldVan, veldNaar, stukVan);
+      slaToren(veldNaar, stukNaar);
+    } else {
+      verzetRokade(veldVan, veldNaar, rokade == Zetcode.KORTE_ROKADE);
+    }
 
     if (aanZet == 'w') {
       aanZetWit(veldVan, veldNaar, stukVan);
     } else {
       aanZetZwart(veldVan, veldNaar, stukVan);
     }
+    zobrist ^= Zobrist.rokade(getRokadeCode()) ^ Zobrist.enPassant(enPassant);
+    gewijzigd();
   }
 
   @Override
@@ -284,42 +474,184 @@ public class FEN implements Serializable {
     }
 
     final FEN other = (FEN) obj;
-    return getFen().equals(other.getFen());
+    return zobrist == other.zobrist
+        && isGelijk(other);
+  }
+
+  /**
+   * Maakt een FEN van de 30 bytes die door toBytes gemaakt werden.
+   *
+   * @param bytes
+   * @return
+   * @throws FenException
+   */
+  public static FEN fromBytes(byte[] bytes) throws FenException {
+    return fromBytes(bytes, 0);
   }
 
+  public static FEN fromBytes(byte[] bytes, int begin) throws FenException {
+    if (bytes.length - begin < BINAIRE_LENGTE || begin < 0) {
+      throw new FenException(resourceBundle.getString(ERR_BINAIR));
+    }
+
+    var bezet = leesLong(bytes, begin, 8);
+    var toestand  = leesLong(bytes, begin + 24, 6);
+    if (Long.bitCount(bezet) > 32) {
+      throw new FenException(resourceBundle.getString(ERR_BINAIR));
+    }
+
+    var fen   = new FEN();
+    fen.leegBord();
+    var i     = 0;
+    while (bezet != 0) {
+      var veld  = Long.numberOfTrailingZeros(bezet);
+      var code  = bytes[begin + 8 + i / 2] >> (i % 2 * 4) & 0xF;
+      if ((code & 7) == 0 || (code & 7) > CaissaConstants.KONING) {
+        throw new FenException(resourceBundle.getString(ERR_BINAIR));
+      }
+      var stuk  = code > 8 ? 8 - code : code;
+      var intern  = Bitborden.veldToIntern(veld);
+      fen.bord[intern]  = stuk;
+      bezet &= bezet - 1;
+      i++;
+    }
+
+    var enPassant = (int) (toestand >>> 5 & 0xF);
+    var type      = (int) (toestand >>> 17 & 0x3);
+    if (enPassant > 8 || type > 2
+        || (toestand >>> 9 & 0xF) > 8 || (toestand >>> 13 & 0xF) > 8) {
+      throw new FenException(resourceBundle.getString(ERR_BINAIR));
+    }
+
+    fen.aanZet            = (toestand & 1) == 0 ? CaissaConstants.WIT
+                                                : CaissaConstants.ZWART;
+    fen.witKorteRokade    = (toestand & 2) != 0;
+    fen.witLangeRokade    = (toestand & 4) != 0;
+    fen.zwartKorteRokade  = (toestand & 8) != 0;
+    fen.zwartLangeRokade  = (toestand & 16) != 0;
+    fen.enPassant         =
+        enPassant == 0 ? 0
+                       : enPassant
+                         + (fen.aanZet == CaissaConstants.WIT ? 70 : 40);
+    fen.kortetoren        = toren((int) (toestand >>> 9 & 0xF));
+    fen.langetoren        = toren((int) (toestand >>> 13 & 0xF));
+    fen.fenType           = FEN_TYPES[type];
+    fen.halvezetten       = (int) (toestand >>> 19 & 0xFF);
+    fen.zetnummer         = (int) (toestand >>> 27 & 0xFFFF);
+    fen.berekenZobrist();
+    fen.gewijzigd();
+
+    return fen;
+  }
+
+  private static FenException fenFout(CharSequence fen, int begin,
+                                      int einde) {
+    return new FenException(MessageFormat.format(
+        resourceBundle.getString(ERR_FEN),
+        fen.subSequence(begin, einde).toString()));
+  }
+
+  /**
+   * Geeft de zet die de ene stelling in de andere verandert. Uit het verschil
+   * tussen beide borden worden het van- en naar-veld en de promotie bepaald.
+   * Bij een rokade zijn dat de velden van de koning. Enkel de zetten van dat
+   * stuk naar dat veld en, voor een koning of toren, de rokades worden
+   * gegenereerd. De rokades worden dan altijd geprobeerd omdat bij Chess960
+   * de koning kan blijven staan.
+   *
+   * Om te controleren of een zet de andere stelling geeft wordt hij op de
+   * beginstelling, dit is deze FEN of de gegeven FEN, uitgevoerd en daarna
+   * teruggenomen. Tijdens de aanroep mag geen andere thread deze FENs
+   * gebruiken.
+   *
+   * @param fen
+   * @return
+   * @throws FenException als er geen zet is tussen beide stellingen.
+   */
   public Zet geefZet(FEN fen) throws FenException {
     if (aanZet == fen.getAanZet()) {
       throw new FenException(resourceBundle.getString(ERR_ZET));
     }
 
-    String    beginstelling;
-    String    eindstelling;
-    List<Zet> zetten;
+    FEN       beginstelling;
+    FEN       eindstelling;
     if (aanZet == CaissaConstants.WIT
-        && zetnummer.equals(fen.zetnummer)) {
-      zetten  = new Zettengenerator(new FEN(getFen())).getZetten();
-      beginstelling = getFen();
-      eindstelling  = fen.getFen();
+        && zetnummer == fen.zetnummer) {
+      beginstelling = this;
+      eindstelling  = fen;
     } else {
-      zetten  = new Zettengenerator(fen).getZetten();
-      beginstelling = fen.getFen();
-      eindstelling  = getFen();
+      beginstelling = fen;
+      eindstelling  = this;
     }
 
-    Zet gevondenzet = null;
-    for (var zet: zetten) {
-      var stelling  = new FEN(beginstelling);
-      stelling.doeZet(zet);
-      if (eindstelling.equals(stelling.getFen())) {
-        gevondenzet = zet;
+    var teken = beginstelling.aanZet == CaissaConstants.WIT ? 1 : -1;
+    var van   = 0;
+    var naar  = 0;
+    for (var veld = 21; veld < 99; veld++) {
+      var voor  = beginstelling.bord[veld] * teken;
+      var na    = eindstelling.bord[veld] * teken;
+      if (voor == na) {
+        continue;
+      }
+      if (voor > 0 && (van == 0 || voor == CaissaConstants.KONING)) {
+        van   = veld;
+      }
+      if (na > 0 && (naar == 0 || na == CaissaConstants.KONING)) {
+        naar  = veld;
       }
     }
-
-    if (null == gevondenzet) {
+    if (van == 0 || naar == 0) {
       throw new FenException(resourceBundle.getString(ERR_ZET));
     }
 
-    return gevondenzet;
+    var promotie  = 0;
+    if (Math.abs(beginstelling.bord[van]) == CaissaConstants.PION
+        && Math.abs(eindstelling.bord[naar]) != CaissaConstants.PION) {
+      promotie  = Math.abs(eindstelling.bord[naar]);
+    }
+
+    var generator = new BitbordZettengenerator(beginstelling);
+    var stuk      = Math.abs(beginstelling.bord[van]);
+    var zetten    = generator.getZetcodes(stuk, naar, promotie);
+    if (stuk == CaissaConstants.KONING || stuk == CaissaConstants.TOREN) {
+      zetten.add(generator.getRokade(true));
+      zetten.add(generator.getRokade(false));
+    }
+    for (var i = 0; i < zetten.size(); i++) {
+      var zet = zetten.get(i);
+      if (zet != 0
+          && (Zetcode.getVan(zet) == van || Zetcode.isRokade(zet))
+          && geeftStelling(beginstelling, zet, eindstelling)) {
+        return generator.getZet(zet);
+      }
+    }
+
+    throw new FenException(resourceBundle.getString(ERR_ZET));
+  }
+
+  /**
+   * Geeft de zet de eindstelling? De zet wordt daarvoor op de beginstelling
+   * uitgevoerd en daarna teruggenomen.
+   */
+  private static boolean geeftStelling(FEN beginstelling, int zet,
+                                       FEN eindstelling)
+      throws FenException {
+    beginstelling.doeZet(zet);
+    try {
+      return beginstelling.isGelijk(eindstelling);
+    } finally {
+      beginstelling.neemTerug();
+    }
+  }
+
+
+  /**
+   * De stelling is gewijzigd. De positie en de FEN moeten opnieuw opgebouwd
+   * worden.
+   */
+  private void gewijzigd() {
+    fenTekst  = null;
+    positie   = null;
   }
 
   public char getAanZet() {
@@ -331,20 +663,39 @@ public class FEN implements Serializable {
   }
 
   public String getEnPassant() {
+    if (enPassant == 0) {
+      return "-";
+    }
+
+    return CaissaUtils.internToExtern(enPassant);
+  }
+
+  /**
+   * Geeft het en passant veld in de interne notatie of 0 als er niet en
+   * passant geslagen kan worden.
+   *
+   * @return
+   */
+  public int getEnPassantVeld() {
     return enPassant;
   }
 
   public String getFen() {
+    if (null != fenTekst) {
+      return fenTekst;
+    }
+
     var fen = new StringBuilder();
 
     fen.append(getPositie()).append(" ");
     fen.append(getAanZet()).append(" ");
     fen.append(getRokade()).append(" ");
     fen.append(getEnPassant()).append(" ");
-    fen.append(getHalvezetten().toString()).append(" ");
-    fen.append(getZetnummer().toString());
+    fen.append(halvezetten).append(" ");
+    fen.append(zetnummer);
+    fenTekst  = fen.toString();
 
-    return fen.toString();
+    return fenTekst;
   }
 
   public Integer getHalvezetten() {
@@ -386,6 +737,10 @@ public class FEN implements Serializable {
   }
 
   public String getPositie() {
+    if (null == positie) {
+      bordToPositie();
+    }
+
     return positie;
   }
 
@@ -423,21 +778,29 @@ public class FEN implements Serializable {
     return rokade.isEmpty() ? "-" : rokade.toString();
   }
 
+  int getRokadeCode() {
+    return (Boolean.TRUE.equals(witKorteRokade)   ? 1 : 0)
+           | (Boolean.TRUE.equals(witLangeRokade)   ? 2 : 0)
+           | (Boolean.TRUE.equals(zwartKorteRokade) ? 4 : 0)
+           | (Boolean.TRUE.equals(zwartLangeRokade) ? 8 : 0);
+  }
+
   private String getRokadeShredder() {
     var rokade  = new StringBuilder();
 
-    if (Boolean.TRUE.equals(witLangeRokade)) {
-      rokade.append(Character.toUpperCase(langetoren));
-    }
+    // Zoals bij KQkq komt de korte rokade eerst.
     if (Boolean.TRUE.equals(witKorteRokade)) {
       rokade.append(Character.toUpperCase(kortetoren));
     }
-    if (Boolean.TRUE.equals(zwartLangeRokade)) {
-      rokade.append(langetoren);
+    if (Boolean.TRUE.equals(witLangeRokade)) {
+      rokade.append(Character.toUpperCase(langetoren));
     }
     if (Boolean.TRUE.equals(zwartKorteRokade)) {
       rokade.append(kortetoren);
     }
+    if (Boolean.TRUE.equals(zwartLangeRokade)) {
+      rokade.append(langetoren);
+    }
 
     return rokade.isEmpty() ? "-" : rokade.toString();
   }
@@ -445,38 +808,56 @@ public class FEN implements Serializable {
   private String getRokadeX() {
     var rokade  = new StringBuilder();
 
-    if (Boolean.TRUE.equals(witLangeRokade)) {
-      if (langetoren == 'a') {
-        rokade.append('Q');
-      } else {
-        rokade.append(Character.toUpperCase(langetoren));
-      }
-    }
     if (Boolean.TRUE.equals(witKorteRokade)) {
-      if (langetoren == 'h') {
-        rokade.append('K');
-      } else {
-        rokade.append(Character.toUpperCase(kortetoren));
-      }
+      rokade.append(getRokadeX(true, true));
     }
-    if (Boolean.TRUE.equals(zwartLangeRokade)) {
-     if (langetoren == 'a') {
-        rokade.append('q');
-      } else {
-        rokade.append(langetoren);
-     }
+    if (Boolean.TRUE.equals(witLangeRokade)) {
+      rokade.append(getRokadeX(true, false));
     }
     if (Boolean.TRUE.equals(zwartKorteRokade)) {
-     if (langetoren == 'h') {
-        rokade.append('K');
-      } else {
-        rokade.append(kortetoren);
-     }
+      rokade.append(getRokadeX(false, true));
+    }
+    if (Boolean.TRUE.equals(zwartLangeRokade)) {
+      rokade.append(getRokadeX(false, false));
     }
 
     return rokade.isEmpty() ? "-" : rokade.toString();
   }
 
+  /**
+   * Geeft K of Q als de toren de buitenste toren is en anders de lijn van de
+   * toren.
+   */
+  private char getRokadeX(boolean wit, boolean kort) {
+    var rij     = wit ? 20 : 90;
+    var toren   = kort ? kortetoren : langetoren;
+    var letter  = toren;
+    if (zoekToren(rij, zoekKoning(rij, wit), wit, kort)
+            == torenveld(rij, toren)) {
+      letter  = kort ? 'k' : 'q';
+    }
+
+    return wit ? Character.toUpperCase(letter) : letter;
+  }
+
+  /**
+   * Geeft de stelling als onveranderlijke eu.debooy.caissa.Stelling.
+   *
+   * @return
+   */
+  public Stelling getStelling() {
+    return getStelling(halvezetten, zetnummer);
+  }
+
+  /**
+   * Geeft de stelling met andere tellers.
+   */
+  Stelling getStelling(int halvezetten, int zetnummer) {
+    return new Stelling(bord.clone(), aanZet, getRokadeCode(), enPassant,
+                        kortetoren, langetoren, typeCode(), halvezetten,
+                        zetnummer, zobrist);
+  }
+
   public Boolean getWitKorteRokade() {
     return witKorteRokade;
   }
@@ -513,9 +894,28 @@ public class FEN implements Serializable {
     return String.format(("%s8"), langetoren);
   }
 
+  /**
+   * Geeft de Zobrist sleutel van de stelling. De halve zetten teller en het
+   * zetnummer maken geen deel uit van de sleutel.
+   *
+   * @return
+   */
+  public long getZobrist() {
+    return zobrist;
+  }
+
   @Override
   public int hashCode() {
-    return getFen().hashCode();
+    return Long.hashCode(zobrist);
+  }
+
+  private boolean isGelijk(FEN other) {
+    return aanZet == other.aanZet
+        && enPassant == other.enPassant
+        && halvezetten == other.halvezetten
+        && zetnummer == other.zetnummer
+        && Arrays.equals(bord, other.bord)
+        && getRokade().equals(other.getRokade());
   }
 
   private void leegBord() {
@@ -530,6 +930,209 @@ public class FEN implements Serializable {
     }
   }
 
+  /**
+   * Leest een nieuwe stelling in deze FEN uit een deel van een byte[] met
+   * ASCII tekens. De vorige stelling en de zetten om terug te nemen gaan
+   * verloren.
+   *
+   * @param fen
+   * @param begin
+   * @param lengte
+   * @throws FenException
+   */
+  void lees(byte[] fen, int begin, int lengte) throws FenException {
+    lees(new Bytereeks(fen, begin, lengte), 0, lengte);
+  }
+
+  private void lees(CharSequence fen, int begin, int einde)
+      throws FenException {
+    while (begin < einde && fen.charAt(begin) <= ' ') {
+      begin++;
+    }
+    while (einde > begin && fen.charAt(einde - 1) <= ' ') {
+      einde--;
+    }
+
+    kortetoren  = '@';
+    langetoren  = '@';
+    setFenType();
+
+    var i     = volgendVeld(fen, leesPositie(fen, begin, einde), einde);
+    var eind  = veldEinde(fen, i, einde);
+    if (eind != i + 1
+        || "bw".indexOf(fen.charAt(i)) < 0) {
+      throw new FenException(resourceBundle.getString(ERR_AANZET));
+    }
+    aanZet    = fen.charAt(i);
+
+    i         = volgendVeld(fen, eind, einde);
+    eind      = veldEinde(fen, i, einde);
+    setRokade(fen, i, eind);
+
+    i         = volgendVeld(fen, eind, einde);
+    eind      = veldEinde(fen, i, einde);
+    enPassant = leesEnPassant(fen, i, eind);
+
+    halvezetten = 0;
+    zetnummer   = 1;
+    if (eind < einde) {
+      i           = volgendVeld(fen, eind, einde);
+      eind        = veldEinde(fen, i, einde);
+      halvezetten = leesGetal(fen, i, eind, begin, einde);
+    }
+    if (eind < einde) {
+      i           = volgendVeld(fen, eind, einde);
+      eind        = veldEinde(fen, i, einde);
+      zetnummer   = leesGetal(fen, i, eind, begin, einde);
+    }
+    if (eind < einde) {
+      throw fenFout(fen, begin, einde);
+    }
+
+    aantalTerugzetten = 0;
+    berekenZobrist();
+    gewijzigd();
+  }
+
+  private static long leesLong(byte[] bytes, int begin, int aantal) {
+    var waarde  = 0L;
+    for (var i = aantal - 1; i >= 0; i--) {
+      waarde  = waarde << 8 | (bytes[begin + i] & 0xFF);
+    }
+
+    return waarde;
+  }
+
+  private int leesEnPassant(CharSequence fen, int begin, int einde)
+      throws FenException {
+    if (einde == begin + 1 && fen.charAt(begin) == '-') {
+      return 0;
+    }
+
+    if (einde != begin + 2
+        || fen.charAt(begin) < 'a' || fen.charAt(begin) > 'h'
+        || fen.charAt(begin + 1) < '1' || fen.charAt(begin + 1) > '8') {
+      throw new FenException(MessageFormat.format(
+          resourceBundle.getString(ERR_ENPASSANT),
+          fen.subSequence(begin, einde).toString()));
+    }
+
+    return (fen.charAt(begin) - 96) + (fen.charAt(begin + 1) - 47) * 10;
+  }
+
+  private int leesGetal(CharSequence fen, int begin, int einde,
+                        int fenBegin, int fenEinde) throws FenException {
+    var getal = 0;
+
+    if (einde - begin > 9) {
+      throw fenFout(fen, fenBegin, fenEinde);
+    }
+    for (var i = begin; i < einde; i++) {
+      var ch  = fen.charAt(i);
+      if (ch < '0' || ch > '9') {
+        throw fenFout(fen, fenBegin, fenEinde);
+      }
+      getal = getal * 10 + (ch - '0');
+    }
+
+    return getal;
+  }
+
+  /**
+   * Zet de stukken op het bord en geeft de plaats na de positie terug.
+   */
+  private int leesPositie(CharSequence fen, int begin, int einde)
+      throws FenException {
+    leegBord();
+
+    var rij   = 9;
+    var kolom = 1;
+    var i     = begin;
+    while (i < einde && fen.charAt(i) != ' ') {
+      var ch  = fen.charAt(i++);
+      if (ch == '/') {
+        if (kolom != 9 || rij == 2) {
+          throw fenFout(fen, begin, einde);
+        }
+        rij--;
+        kolom = 1;
+      } else if (ch >= '1' && ch <= '8') {
+        kolom  += ch - '0';
+      } else if (ch < 128 && STUKWAARDE[ch] != 0 && kolom < 9) {
+        bord[rij * 10 + kolom]  = STUKWAARDE[ch];
+        kolom++;
+      } else {
+        throw fenFout(fen, begin, einde);
+      }
+      if (kolom > 9) {
+        throw fenFout(fen, begin, einde);
+      }
+    }
+
+    if (rij != 2 || kolom != 9) {
+      throw fenFout(fen, begin, einde);
+    }
+
+    return i;
+  }
+
+  /**
+   * Neemt de laatste zet die met doeZet gedaan werd terug.
+   *
+   * @throws FenException als er geen zet is om terug te nemen.
+   */
+  public void neemTerug() throws FenException {
+    if (aantalTerugzetten == 0) {
+      throw new FenException(resourceBundle.getString(ERR_TERUGZET));
+    }
+
+    var terugzet  = terugzetten[--aantalTerugzetten];
+    zobrist       = zobristen[aantalTerugzetten];
+    var veldVan   = (int) (terugzet & 0x7F);
+    var veldNaar  = (int) (terugzet >>> 7 & 0x7F);
+    var stukVan   = (int) (terugzet >>> 14 & 0xF) - 6;
+    var stukNaar  = (int) (terugzet >>> 18 & 0xF) - 6;
+    var rokade    = (int) (terugzet >>> 29 & 0xF);
+    var soort     = (int) (terugzet >>> 33 & 0x3);
+
+    enPassant         = (int) (terugzet >>> 22 & 0x7F);
+    halvezetten       = (int) (terugzet >>> 35);
+    witKorteRokade    = (rokade & 1) != 0;
+    witLangeRokade    = (rokade & 2) != 0;
+    zwartKorteRokade  = (rokade & 4) != 0;
+    zwartLangeRokade  = (rokade & 8) != 0;
+
+    if (aanZet == CaissaConstants.WIT) {
+      aanZet  = CaissaConstants.ZWART;
+      zetnummer--;
+    } else {
+      aanZet  = CaissaConstants.WIT;
+    }
+
+    if (soort != 0) {
+      // Rokade: eerst de velden van aankomst leegmaken want bij Chess960
+      // kunnen die de velden van vertrek zijn.
+      var kort  = soort == 1;
+      var rij   = veldVan - veldVan % 10;
+      var toren = bord[rij + (kort ? 6 : 4)];
+      bord[veldNaar]                                      = 0;
+      bord[rij + (kort ? 6 : 4)]                          = 0;
+      bord[veldVan]                                       = stukVan;
+      bord[torenveld(rij, kort ? kortetoren : langetoren)] = toren;
+    } else {
+      bord[veldVan]   = stukVan;
+      bord[veldNaar]  = stukNaar;
+    }
+
+    // En passant: de geslagen pion staat naast het veld van vertrek.
+    if (Math.abs(stukVan) == CaissaConstants.PION
+        && veldNaar == enPassant) {
+      bord[veldNaar - (stukVan > 0 ? 10 : -10)] = -stukVan;
+    }
+
+    gewijzigd();
+  }
+
   private void positieToBord() {
     leegBord();
 
@@ -538,15 +1141,8 @@ public class FEN implements Serializable {
       var kolom = 1;
       for (var j = 0; j < rij[i].length(); j++) {
         var ch  = rij[i].charAt(j);
-        if (CaissaConstants.STUKKEN.toLowerCase().indexOf(ch) > -1) {
-          bord[(9-i)*10+kolom]  = (CaissaConstants.STUKKEN
-                                                  .toLowerCase()
-                                                  .indexOf(ch) + 1) * -1;
-          if (ch == 'k') {
-            koninglijn  = (char) (kolom+96);
-          }
-        } else if (CaissaConstants.STUKKEN.indexOf(ch) > -1) {
-            bord[(9-i)*10+kolom]  = CaissaConstants.STUKKEN.indexOf(ch) + 1;
+        if (ch < 128 && STUKWAARDE[ch] != 0) {
+          bord[(9-i)*10+kolom]  = STUKWAARDE[ch];
         } else if ("12345678".indexOf(ch) > -1) {
           kolom  += "12345678".indexOf(ch);
         }
@@ -570,12 +1166,47 @@ public class FEN implements Serializable {
     return internBord.toString();
   }
 
+  private static FenException rokadeFout(CharSequence fen, int begin,
+                                         int einde) {
+    return new FenException(MessageFormat.format(
+        resourceBundle.getString(ERR_ROKADE),
+        fen.subSequence(begin, einde).toString()));
+  }
+
+  private static void schrijfLong(byte[] bytes, int begin, long waarde,
+                                  int aantal) {
+    for (var i = 0; i < aantal; i++) {
+      bytes[begin + i]  = (byte) (waarde >>> (i * 8));
+    }
+  }
+
+  private void slaToren(int veldNaar, int stukNaar) {
+    // Een geslagen toren op zijn beginveld kan niet meer rokeren.
+    if (stukNaar == CaissaConstants.TOREN) {
+      if (veldNaar == torenveld(20, langetoren)) {
+        witLangeRokade    = false;
+      }
+      if (veldNaar == torenveld(20, kortetoren)) {
+        witKorteRokade    = false;
+      }
+    }
+    if (stukNaar == CaissaConstants.ZTOREN) {
+      if (veldNaar == torenveld(90, langetoren)) {
+        zwartLangeRokade  = false;
+      }
+      if (veldNaar == torenveld(90, kortetoren)) {
+        zwartKorteRokade  = false;
+      }
+    }
+  }
+
   public void setAanZet(char aanZet) throws FenException {
     if ("bw".indexOf(aanZet) < 0) {
       throw new FenException(resourceBundle.getString(ERR_AANZET));
     }
 
     this.aanZet = aanZet;
+    berekenZobrist();
   }
 
   public void setAanZet(String aanZet) throws FenException {
@@ -588,7 +1219,8 @@ public class FEN implements Serializable {
 
   public void setEnPassant(String enPassant) throws FenException {
     if ("-".equals(enPassant)) {
-      this.enPassant  = enPassant;
+      this.enPassant  = 0;
+      berekenZobrist();
       return;
     }
 
@@ -597,7 +1229,8 @@ public class FEN implements Serializable {
           resourceBundle.getString(ERR_ENPASSANT), enPassant));
     }
 
-    this.enPassant = enPassant;
+    this.enPassant = CaissaUtils.externToIntern(enPassant);
+    berekenZobrist();
   }
 
   public void setFen(String fen) throws FenException {
@@ -611,17 +1244,20 @@ public class FEN implements Serializable {
     setZetnummer(Integer.valueOf(veld[5]));
   }
 
-  private void setFenType(String rokade) {
+  private void setFenType() {
     fenType = FEN_STANDAARD;
   }
 
   public void setHalvezetten(Integer halvezetten) {
-    this.halvezetten = halvezetten;
+    this.halvezetten  = halvezetten;
+    fenTekst          = null;
   }
 
   public void setPositie(String positie) {
     this.positie  = positie;
     positieToBord();
+    aantalTerugzetten = 0;
+    berekenZobrist();
   }
 
   private void setRokade(String rokade) throws FenException {
@@ -630,124 +1266,202 @@ public class FEN implements Serializable {
           resourceBundle.getString(ERR_ROKADE), rokade));
     }
 
+    setRokade(rokade, 0, rokade.length());
+  }
+
+  /**
+   * Zet de rokades. K, Q, k en q staan voor de buitenste toren aan die kant
+   * van de koning (X-FEN). Een lijn van A tot H staat voor de toren op die
+   * lijn (Shredder-FEN). De lijnen van de korte en lange toren zijn voor wit
+   * en zwart gelijk.
+   */
+  private void setRokade(CharSequence fen, int begin, int einde)
+      throws FenException {
+    if (begin >= einde) {
+      throw rokadeFout(fen, begin, einde);
+    }
+
     witKorteRokade    = false;
     witLangeRokade    = false;
     zwartKorteRokade  = false;
     zwartLangeRokade  = false;
 
-    if (rokade.equals("-")) {
+    if (einde == begin + 1 && fen.charAt(begin) == '-') {
+      setFenType();
+      berekenZobrist();
       return;
     }
 
-    if (!validRokade(rokade)) {
-      throw new FenException(MessageFormat.format(
-          resourceBundle.getString(ERR_ROKADE), rokade));
+    if (!validRokade(fen, begin, einde)) {
+      throw rokadeFout(fen, begin, einde);
     }
 
-    for (var i = 0; i < rokade.length(); i++) {
-      var lijn      = rokade.charAt(i);
-
-      if (Character.toLowerCase(lijn) == koninglijn) {
-        throw new FenException(MessageFormat.format(
-            resourceBundle.getString(ERR_ROKADE), rokade));
+    var klassiek  = false;
+    var lijnen    = false;
+    var standaard = true;
+    for (var i = begin; i < einde; i++) {
+      var letter  = fen.charAt(i);
+      var lijn    = Character.toLowerCase(letter);
+      var wit     = letter != lijn;
+      var rij     = wit ? 20 : 90;
+      var koning  = zoekKoning(rij, wit);
+      boolean kort;
+      int     toren;
+      if (lijn == 'k' || lijn == 'q') {
+        klassiek  = true;
+        kort      = lijn == 'k';
+        toren     = zoekToren(rij, koning, wit, kort);
+      } else {
+        lijnen    = true;
+        toren     = torenveld(rij, lijn);
+        kort      = toren > koning;
+        if (koning == 0 || toren == koning) {
+          throw rokadeFout(fen, begin, einde);
+        }
       }
-      setRokadeKort(lijn, rokade);
-      setRokadeLang(lijn, rokade);
+      standaard = standaard && toren % 10 == (kort ? 8 : 1);
+      setRokade(wit, kort, (char) ('a' + toren % 10 - 1), fen, begin, einde);
     }
 
-    setFenType(rokade);
+    if (lijnen) {
+      fenType = klassiek ? FEN_X : FEN_SHREDDER;
+    } else {
+      fenType = standaard ? FEN_STANDAARD : FEN_X;
+    }
+    berekenZobrist();
   }
 
-  private void setRokadeKort(char lijn, String rokade) throws FenException {
-    var controle        = Character.toLowerCase(lijn);
-
-    if (!(controle == 'k'
-          || (CaissaConstants.FEN_KORTEROKADE.indexOf(controle) > -1
-              && controle > koninglijn))) {
-      return;
+  private void setRokade(boolean wit, boolean kort, char toren,
+                         CharSequence fen, int begin, int einde)
+      throws FenException {
+    var huidig  = kort ? kortetoren : langetoren;
+    var gezet   = kort ? witKorteRokade || zwartKorteRokade
+                       : witLangeRokade || zwartLangeRokade;
+    if (gezet && huidig != toren) {
+      throw rokadeFout(fen, begin, einde);
     }
 
-    if (DoosUtils.isUppercase(lijn)) {
-      witKorteRokade    = true;
+    if (kort) {
+      kortetoren  = toren;
+      if (wit) {
+        witKorteRokade    = true;
+      } else {
+        zwartKorteRokade  = true;
+      }
     } else {
-      zwartKorteRokade  = true;
+      langetoren  = toren;
+      if (wit) {
+        witLangeRokade    = true;
+      } else {
+        zwartLangeRokade  = true;
+      }
     }
+  }
 
-    if (controle == 'k') {
-      kortetoren        = 'h';
-      return;
-    }
+  public void setWitKorteRokade(Boolean witKorteRokade) {
+    this.witKorteRokade  = witKorteRokade;
+    berekenZobrist();
+  }
 
-    if (controle > koninglijn
-        && CaissaConstants.FEN_KORTEROKADE.indexOf(controle) > -1) {
-      kortetoren        = controle;
-      return;
-    }
+  public void setWitLangeRokade(Boolean witLangeRokade) {
+    this.witLangeRokade  = witLangeRokade;
+    berekenZobrist();
+  }
 
-    if (DoosUtils.isUppercase(lijn)) {
-      witKorteRokade    = false;
-    } else {
-      zwartKorteRokade  = false;
-    }
+  public void setZetnummer(Integer zetnummer) {
+    this.zetnummer  = zetnummer;
+    fenTekst        = null;
+  }
 
-    throw new FenException(MessageFormat.format(
-        resourceBundle.getString(ERR_ROKADE), rokade));
+  public void setZwartKorteRokade(Boolean zwartKorteRokade) {
+    this.zwartKorteRokade  = zwartKorteRokade;
+    berekenZobrist();
   }
 
-  private void setRokadeLang(char lijn, String rokade) throws FenException {
-    var controle  = Character.toLowerCase(lijn);
+  public void setZwartLangeRokade(Boolean zwartLangeRokade) {
+    this.zwartLangeRokade  = zwartLangeRokade;
+    berekenZobrist();
+  }
 
-    if (!(controle == 'q'
-          || (CaissaConstants.FEN_LANGEROKADE.indexOf(controle) > -1
-              && controle < koninglijn))) {
-      return;
-    }
+  /**
+   * Geeft de stelling in 30 bytes.
+   *
+   * @return
+   * @throws FenException als de stelling niet in 30 bytes past.
+   */
+  public byte[] toBytes() throws FenException {
+    var bytes = new byte[BINAIRE_LENGTE];
 
-    if (DoosUtils.isUppercase(lijn)) {
-      witLangeRokade    = true;
-    } else {
-      zwartLangeRokade  = true;
-    }
+    toBytes(bytes, 0);
 
-    if (controle == 'q') {
-      langetoren        = 'a';
-      return;
-    }
+    return bytes;
+  }
 
-    if (controle < koninglijn
-            && CaissaConstants.FEN_LANGEROKADE.indexOf(controle) > -1) {
-      langetoren        = controle;
-      return;
+  /**
+   * Schrijft de stelling in 30 bytes vanaf begin in het byte[].
+   *
+   * @param bytes
+   * @param begin
+   * @throws FenException als de stelling niet in 30 bytes past.
+   */
+  public void toBytes(byte[] bytes, int begin) throws FenException {
+    if (halvezetten < 0 || halvezetten > 0xFF
+        || zetnummer < 0 || zetnummer > 0xFFFF) {
+      throw new FenException(resourceBundle.getString(ERR_BINAIR));
     }
 
-    if (DoosUtils.isUppercase(lijn)) {
-      witLangeRokade    = false;
-    } else {
-      zwartLangeRokade  = false;
+    var bezet = 0L;
+    var i     = 0;
+    Arrays.fill(bytes, begin, begin + BINAIRE_LENGTE, (byte) 0);
+    for (var veld = 0; veld < 64; veld++) {
+      var stuk  = bord[Bitborden.veldToIntern(veld)];
+      if (stuk != 0) {
+        if (i == 32) {
+          throw new FenException(resourceBundle.getString(ERR_BINAIR));
+        }
+        var code  = stuk > 0 ? stuk : 8 - stuk;
+        bytes[begin + 8 + i / 2] |= (byte) (code << (i % 2 * 4));
+        bezet |= 1L << veld;
+        i++;
+      }
     }
 
-    throw new FenException(MessageFormat.format(
-        resourceBundle.getString(ERR_ROKADE), rokade));
+    var toestand  = (aanZet == CaissaConstants.WIT ? 0L : 1L)
+                    | (long) getRokadeCode() << 1
+                    | (long) (enPassant == 0 ? 0 : enPassant % 10) << 5
+                    | (long) torenCode(kortetoren) << 9
+                    | (long) torenCode(langetoren) << 13
+                    | (long) typeCode() << 17
+                    | (long) halvezetten << 19
+                    | (long) zetnummer << 27;
+    schrijfLong(bytes, begin, bezet, 8);
+    schrijfLong(bytes, begin + 24, toestand, 6);
   }
 
-  public void setWitKorteRokade(Boolean witKorteRokade) {
-    this.witKorteRokade  = witKorteRokade;
+  private static char toren(int code) {
+    return code == 0 ? '@' : (char) ('a' + code - 1);
   }
 
-  public void setWitLangeRokade(Boolean witLangeRokade) {
-    this.witLangeRokade  = witLangeRokade;
+  private static int torenCode(char toren) {
+    return toren < 'a' || toren > 'h' ? 0 : toren - 'a' + 1;
   }
 
-  public void setZetnummer(Integer zetnummer) {
-    this.zetnummer = zetnummer;
+  /**
+   * Geeft het veld op de rij (20 of 90) en lijn. Voor een onbekende lijn
+   * ('@') is dat een veld naast het bord.
+   */
+  private static int torenveld(int rij, char lijn) {
+    return rij + lijn - 'a' + 1;
   }
 
-  public void setZwartKorteRokade(Boolean zwartKorteRokade) {
-    this.zwartKorteRokade  = zwartKorteRokade;
-  }
+  private int typeCode() {
+    for (var i = 1; i < FEN_TYPES.length; i++) {
+      if (FEN_TYPES[i].equals(fenType)) {
+        return i;
+      }
+    }
 
-  public void setZwartLangeRokade(Boolean zwartLangeRokade) {
-    this.zwartLangeRokade  = zwartLangeRokade;
+    return 0;
   }
 
   @Override
@@ -755,18 +1469,140 @@ public class FEN implements Serializable {
     return getFen();
   }
 
-  private boolean validRokade(String rokade) {
-    var uniek   = DoosUtils.uniekeCharacters(rokade.toLowerCase());
-    var correct = true;
-
-    for (var i = 0; i < uniek.length(); i++) {
-      var letter  = Character.toLowerCase(uniek.charAt(i));
+  private boolean validRokade(CharSequence fen, int begin, int einde) {
+    for (var i = begin; i < einde; i++) {
+      var letter  = Character.toLowerCase(fen.charAt(i));
       if (startRokade.indexOf(letter) == -1
           && startRokade960.indexOf(letter) == -1) {
-        correct = false;
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static int veldEinde(CharSequence fen, int begin, int einde) {
+    var i = begin;
+    while (i < einde && fen.charAt(i) != ' ') {
+      i++;
+    }
+
+    return i;
+  }
+
+  /**
+   * Zet de koning en de toren van de rokade op hun nieuwe plaats. Bij
+   * Chess960 kan de koning of de toren op het veld van de andere staan.
+   */
+  private void verzetRokade(int koningVan, int koningNaar, boolean kort) {
+    var rij       = koningVan - koningVan % 10;
+    var torenVan  = torenveld(rij, kort ? kortetoren : langetoren);
+    var koning    = bord[koningVan];
+    var toren     = bord[torenVan];
+
+    wijzig(koningVan, 0);
+    wijzig(torenVan, 0);
+    wijzig(koningNaar, koning);
+    wijzig(rij + (kort ? 6 : 4), toren);
+  }
+
+  /**
+   * Slaat de spatie voor het volgende veld over. Het veld moet bestaan.
+   */
+  private static int volgendVeld(CharSequence fen, int positie, int einde)
+      throws FenException {
+    if (positie + 1 >= einde || fen.charAt(positie) != ' ') {
+      throw fenFout(fen, 0, einde);
+    }
+
+    return positie + 1;
+  }
+
+  /**
+   * Zet het stuk op het zoveelste lege veld (vanaf 0) van de rij.
+   */
+  private static void zetOpLeegVeld(char[] rij, int leeg, char stuk) {
+    for (var i = 0; i < rij.length; i++) {
+      if (rij[i] == 0 && leeg-- == 0) {
+        rij[i]  = stuk;
+        return;
+      }
+    }
+  }
+
+  private void wijzig(int veld, int stuk) {
+    zobrist    ^= Zobrist.stuk(bord[veld], veld) ^ Zobrist.stuk(stuk, veld);
+    bord[veld]  = stuk;
+  }
+
+  private int zoekKoning(int rij, boolean wit) {
+    var koning  = wit ? CaissaConstants.KONING : CaissaConstants.ZKONING;
+    for (var veld = rij + 1; veld < rij + 9; veld++) {
+      if (bord[veld] == koning) {
+        return veld;
       }
     }
 
-    return correct;
+    return 0;
+  }
+
+  /**
+   * Geeft de buitenste toren aan de korte of lange kant van de koning. Als
+   * er geen is dan de toren van de klassieke rokade.
+   */
+  private int zoekToren(int rij, int koning, boolean wit, boolean kort) {
+    var toren = wit ? CaissaConstants.TOREN : CaissaConstants.ZTOREN;
+    if (koning != 0) {
+      if (kort) {
+        for (var veld = rij + 8; veld > koning; veld--) {
+          if (bord[veld] == toren) {
+            return veld;
+          }
+        }
+      } else {
+        for (var veld = rij + 1; veld < koning; veld++) {
+          if (bord[veld] == toren) {
+            return veld;
+          }
+        }
+      }
+    }
+
+    return rij + (kort ? 8 : 1);
+  }
+
+  /**
+   * Een deel van een byte[] met ASCII tekens als CharSequence.
+   */
+  private static final class Bytereeks implements CharSequence {
+    private final int     begin;
+    private final byte[]  bytes;
+    private final int     lengte;
+
+    Bytereeks(byte[] bytes, int begin, int lengte) {
+      this.begin  = begin;
+      this.bytes  = bytes;
+      this.lengte = lengte;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (bytes[begin + index] & 0xFF);
+    }
+
+    @Override
+    public int length() {
+      return lengte;
+    }
+
+    @Override
+    public CharSequence subSequence(int van, int tot) {
+      return new Bytereeks(bytes, begin + van, tot - van);
+    }
+
+    @Override
+    public String toString() {
+      return new String(bytes, begin, lengte, StandardCharsets.ISO_8859_1);
+    }
   }
 }
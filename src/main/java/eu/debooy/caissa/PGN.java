@@ -94,6 +94,8 @@ public class PGN implements Comparable<PGN>, Serializable {
 
   public static final String  ERR_BESTAND           = "pgn.bestand.incorrect";
   public static final String  ERR_BESTAND_EXCEPTION = "pgn.bestand.exception";
+  public static final String  ERR_DUBBELZINNIGEZET  =
+      "pgn.error.dubbelzinnige.zet";
   public static final String  ERR_HALVEZET          = "pgn.error.halvezet";
   public static final String  ERR_ONGELDIGEZET      = "pgn.error.ongeldige.zet";
   public static final String  ERR_PGN_INVALID       = "pgn.error.invalid";
@@ -125,9 +127,6 @@ public class PGN implements Comparable<PGN>, Serializable {
   private Map<String, String>
                           tags            =
       new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-  private final String[]  annotaties      = {"+-", "-+", "+--", "--+", "+/-",
-                                           "-/+", "+=", "=+", "~", "?", "!",
-                                           " ="};
   private final String[]  uitslagen       = {CaissaConstants.PARTIJ_WIT_WINT,
                                              CaissaConstants.PARTIJ_ZWART_WINT,
                                              CaissaConstants.PARTIJ_REMISE,
@@ -384,41 +383,19 @@ public class PGN implements Comparable<PGN>, Serializable {
                                            .getStukcodes());
   }
 
+  /**
+   * Geeft de zetten zonder commentaar, varianten, annotaties, $nn notaties,
+   * de 'D' van diagram, de 'N' van nieuwtje en zetnummers als '3...'. Dit doet
+   * de eu.debooy.caissa.Zettenzuiveraar.
+   *
+   * @return
+   */
   public String getZuivereZetten() {
     if (!zuivereZetten.isEmpty()) {
       return zuivereZetten;
     }
 
-    zuivereZetten = " " + zetten + " ";
-    // TAB wordt spatie, Verwijder spaties rond de punten (2x),
-    // Verwijder 'diagram', Verwijder 'nieuwtje'
-    zuivereZetten = zuivereZetten.replace("\t",  " ")
-                                 .replace(". ",  ".")
-                                 .replace(" .",  ".")
-                                 .replace(" D ", " ")
-                                 .replace(" N ", " ");
-
-    // Verwijder commentaar en varianten.
-    verwijder('{');
-    verwijder('(');
-
-    for (String annotatie : annotaties) {
-      if (zuivereZetten.contains(annotatie)) {
-        zuivereZetten = zuivereZetten.replace(annotatie, "");
-      }
-    }
-
-    // Verwijder $nn annotaties.
-    while (zuivereZetten.contains("$")) {
-      verwijderDollarNotaties();
-    }
-
-    // Verwijder 'gesplitste' zetten.
-    while (zuivereZetten.contains("...")) {
-      verwijderGesplitsteZetten();
-    }
-
-    zuivereZetten = zuivereZetten.replaceAll(" +", " ").trim();
+    zuivereZetten = Zettenzuiveraar.zuiver(zetten);
 
     return zuivereZetten;
   }
@@ -568,80 +545,13 @@ public class PGN implements Comparable<PGN>, Serializable {
     return CaissaUtils.vertaalStukken(zetten, stukken, naarStukken);
   }
 
-  private void verwijder(char open) {
-    while (zuivereZetten.contains("" + open)) {
-      var niveau  = 1;
-      var start   = zuivereZetten.indexOf(open);
-      var eind    = start + 1;
-      while (niveau > 0) {
-        switch (zuivereZetten.charAt(eind)) {
-          case '{': niveau++;
-                    break;
-          case '}': niveau--;
-                    break;
-          case '(': niveau++;
-                    break;
-          case ')': niveau--;
-                    break;
-        default:
-          break;
-        }
-        eind++;
-      }
-      if (start == 0) {
-        zuivereZetten = zuivereZetten.substring(eind);
-      } else {
-        if (eind == zuivereZetten.length()) {
-          zuivereZetten = zuivereZetten.substring(0, start - 1);
-        } else {
-          zuivereZetten = zuivereZetten.substring(0, start - 1)
-                          + zuivereZetten.substring(eind);
-        }
-      }
-    }
-  }
-
-  private void verwijderDollarNotaties() {
-    var start = zuivereZetten.indexOf('$');
-    var eind  = start + 1;
-
-    while ("0123456789".contains("" + zuivereZetten.charAt(eind))) {
-      eind++;
-    }
-
-    if (start == 0) {
-      zuivereZetten = zuivereZetten.substring(eind);
-      return;
-    }
-
-    if (eind == zuivereZetten.length()) {
-      zuivereZetten = zuivereZetten.substring(0, start - 1);
-    } else {
-      zuivereZetten = zuivereZetten.substring(0, start - 1)
-                      + zuivereZetten.substring(eind);
-    }
-  }
-
+  /**
+   * Verwijdert de zetnummers met ... en de zet ervoor uit de zuivere zetten.
+   *
+   * @deprecated Dit gebeurt al in getZuivereZetten.
+   */
+  @Deprecated(forRemoval = true, since = "0.4.0")
   public void verwijderGesplitsteZetten() {
-    var start = zuivereZetten.indexOf("...") - 1;
-    var eind  = start + 4;
-
-    while (zuivereZetten.charAt(start) != ' ') {
-      start--;
-    }
-    while (zuivereZetten.charAt(eind) == '.') {
-      eind++;
-    }
-
-    if (start <= 0) {
-      return;
-    }
-
-    if (eind == zuivereZetten.length()) {
-      zuivereZetten = zuivereZetten.substring(0, start + 1);
-    } else {
-      zuivereZetten = zuivereZetten.substring(0, start + 1)
-                      + zuivereZetten.substring(eind);
-    }
+    zuivereZetten = Zettenzuiveraar.verwijderGesplitsteZetten(zuivereZetten);
   }
 }
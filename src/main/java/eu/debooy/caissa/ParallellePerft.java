@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+
+/**
+ * Telt zoals eu.debooy.caissa.Perft het aantal knopen tot een bepaalde diepte
+ * maar verdeelt het werk over meerdere threads met een ForkJoinPool.
+ *
+ * De boom wordt gesplitst in de wortel en in de ondiepe lagen. Elke zet krijgt
+ * een eigen taak met een eigen kopie van de stelling. Vanaf een resterende
+ * diepte kleiner dan splitsdiepte wordt sequentieel geteld. Taken zonder werk
+ * stelen werk van de andere threads. Elke taak geeft zijn aantal terug zodat
+ * er geen gedeelde teller nodig is en het resultaat gelijk is aan dat van
+ * Perft. Een eu.debooy.caissa.Perfttabel kan door alle threads gedeeld
+ * worden.
+ *
+ * @author Marco de Booij
+ */
+public class ParallellePerft {
+  public static final int SPLITSDIEPTE  = 3;
+
+  private final ForkJoinPool                  pool;
+  private final int                           splitsdiepte;
+  private final Perfttabel                    tabel;
+  private final CaissaConstants.Generatortype type;
+
+  private long  knopen  = 0L;
+  private long  tijd    = 0L;
+
+  public ParallellePerft() {
+    this(CaissaConstants.Generatortype.BITBORD);
+  }
+
+  public ParallellePerft(CaissaConstants.Generatortype type) {
+    this(type, ForkJoinPool.commonPool(), SPLITSDIEPTE);
+  }
+
+  public ParallellePerft(CaissaConstants.Generatortype type,
+                         ForkJoinPool pool, int splitsdiepte) {
+    this(type, pool, splitsdiepte, null);
+  }
+
+  public ParallellePerft(CaissaConstants.Generatortype type,
+                         ForkJoinPool pool, int splitsdiepte,
+                         Perfttabel tabel) {
+    this.pool         = pool;
+    this.splitsdiepte = Math.max(splitsdiepte, 1);
+    this.tabel        = tabel;
+    this.type         = type;
+  }
+
+  /**
+   * Geeft per zet het aantal knopen dat na die zet op de resterende diepte
+   * bereikt wordt. De zetten staan in UCI notatie.
+   *
+   * @param fen
+   * @param diepte
+   * @return
+   * @throws FenException
+   */
+  public Map<String, Long> divide(FEN fen, int diepte) throws FenException {
+    Map<String, Long> aantallen = new TreeMap<>();
+
+    var start = System.nanoTime();
+    knopen    = 0L;
+    if (diepte > 0) {
+      var zetten  = CaissaUtils.getZettengenerator(fen, type).getZetcodes();
+      var taken   = splits(fen, zetten, diepte - 1);
+      taken.forEach(pool::execute);
+      for (var i = 0; i < taken.size(); i++) {
+        var aantal  = voerUit(taken.get(i)::join);
+        aantallen.put(Zetcode.getUciNotatie(zetten.get(i)), aantal);
+        knopen     += aantal;
+      }
+    }
+    tijd      = System.nanoTime() - start;
+
+    return aantallen;
+  }
+
+  public long getKnopen() {
+    return knopen;
+  }
+
+  public long getKnopenPerSeconde() {
+    if (tijd == 0L) {
+      return 0L;
+    }
+
+    return knopen * 1000000000L / tijd;
+  }
+
+  public int getParallellisme() {
+    return pool.getParallelism();
+  }
+
+  public Perfttabel getPerfttabel() {
+    return tabel;
+  }
+
+  public int getSplitsdiepte() {
+    return splitsdiepte;
+  }
+
+  /**
+   * Geeft de tijd van de laatste telling in milliseconden.
+   *
+   * @return
+   */
+  public long getTijd() {
+    return tijd / 1000000L;
+  }
+
+  public CaissaConstants.Generatortype getType() {
+    return type;
+  }
+
+  public long perft(FEN fen, int diepte) throws FenException {
+    var start = System.nanoTime();
+    var taak  = new Telling(new FEN(fen.getFen()), diepte);
+    knopen    = voerUit(() -> pool.invoke(taak));
+    tijd      = System.nanoTime() - start;
+
+    return knopen;
+  }
+
+  private List<Telling> splits(FEN fen, Zettenlijst zetten, int diepte)
+      throws FenException {
+    List<Telling> taken = new ArrayList<>(zetten.size());
+
+    for (var i = 0; i < zetten.size(); i++) {
+      var kopie = new FEN(fen.getFen());
+      kopie.doeZet(zetten.get(i));
+      taken.add(new Telling(kopie, diepte));
+    }
+
+    return taken;
+  }
+
+  /**
+   * Geeft de FenException uit een taak terug als FenException.
+   */
+  private static <T> T voerUit(Supplier<T> uitvoering) throws FenException {
+    try {
+      return uitvoering.get();
+    } catch (CompletionException e) {
+      Throwable oorzaak = e;
+      while (null != oorzaak && !(oorzaak instanceof FenException)) {
+        oorzaak = oorzaak.getCause();
+      }
+      if (null == oorzaak) {
+        throw e;
+      }
+
+      throw (FenException) oorzaak;
+    }
+  }
+
+  private class Telling extends RecursiveTask<Long> {
+    private static final long serialVersionUID  = 1L;
+
+    private final transient FEN fen;
+    private final int           diepte;
+
+    Telling(FEN fen, int diepte) {
+      this.diepte = diepte;
+      this.fen    = fen;
+    }
+
+    @Override
+    protected Long compute() {
+      try {
+        if (diepte < splitsdiepte) {
+          return Perft.tel(fen, diepte, type, tabel);
+        }
+
+        if (null != tabel) {
+          var bewaard = tabel.zoek(fen.getZobrist(), diepte);
+          if (bewaard >= 0) {
+            return bewaard;
+          }
+        }
+
+        var zetten  = CaissaUtils.getZettengenerator(fen, type).getZetcodes();
+        var taken   = splits(fen, zetten, diepte - 1);
+        var aantal  = 0L;
+        invokeAll(taken);
+        for (var taak : taken) {
+          aantal   += taak.join();
+        }
+
+        if (null != tabel) {
+          tabel.bewaar(fen.getZobrist(), diepte, aantal);
+        }
+
+        return aantal;
+      } catch (FenException e) {
+        throw new CompletionException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.DoosConstants;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+/**
+ * Laadt de partijen van een PGN bestand zoals
+ * CaissaUtils.laadPgnBestand maar verdeelt het werk over meerdere threads
+ * met een ForkJoinPool.
+ *
+ * Het bestand wordt in het geheugen gemapt en één keer doorlopen om het in
+ * blokken te verdelen en de regels te tellen. Een blok begint bij een regel
+ * die met [Event begint en na een lege regel staat. Elk blok is ongeveer
+ * blokgrootte bytes groot en wordt door een eigen taak met een
+ * eu.debooy.caissa.Pgnlezer gelezen. Het begin van een blok moet dus op een
+ * grens tussen tekens vallen wat voor UTF-8 en de ISO-8859 tekensets zo is.
+ *
+ * Een fout in een partij stopt het laden niet. De fout wordt bij de eerste
+ * regel van de partij in het bestand bewaard en de volgende partij wordt
+ * gelezen. Het resultaat hangt zo niet af van de blokgrootte.
+ *
+ * @author Marco de Booij
+ */
+public class ParallellePgnlader {
+  public static final int BLOKGROOTTE = 1 << 20;
+
+  private static final  byte[]  EVENT   = "[Event".getBytes();
+  private static final  int     VENSTER = 1 << 30;
+
+  protected static  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle("CaissaCore");
+
+  private final int                   blokgrootte;
+  private final Map<Integer, String>  fouten  = new TreeMap<>();
+  private final ForkJoinPool          pool;
+
+  private int   blokken = 0;
+  private long  tijd    = 0L;
+
+  public ParallellePgnlader() {
+    this(ForkJoinPool.commonPool(), BLOKGROOTTE);
+  }
+
+  public ParallellePgnlader(ForkJoinPool pool, int blokgrootte) {
+    this.blokgrootte  = Math.max(blokgrootte, 1);
+    this.pool         = pool;
+  }
+
+  /**
+   * Verdeelt het bestand in blokken. Geeft per blok het begin en het aantal
+   * regels ervoor. Het laatste element is het einde van het bestand.
+   */
+  private List<long[]> bepaalBlokken(FileChannel kanaal) throws IOException {
+    List<long[]>  grenzen     = new ArrayList<>();
+    var           grootte     = kanaal.size();
+    var           doel        = (long) blokgrootte;
+    var           gelijk      = 0;
+    var           leeg        = true;
+    var           regels      = 0L;
+    var           regelBegin  = 0L;
+    var           regelLengte = 0;
+
+    grenzen.add(new long[] {0L, 0L});
+    for (var begin = 0L; begin < grootte; begin += VENSTER) {
+      var venster = kanaal.map(FileChannel.MapMode.READ_ONLY, begin,
+                               Math.min(VENSTER, grootte - begin));
+      while (venster.hasRemaining()) {
+        var teken = venster.get();
+        if (teken == '\n') {
+          leeg        = regelLengte == 0;
+          regels++;
+          regelBegin  = begin + venster.position();
+          regelLengte = 0;
+          gelijk      = 0;
+          continue;
+        }
+        if (teken != '\r') {
+          regelLengte++;
+        }
+        if (gelijk == regelLengte - 1 && gelijk < EVENT.length
+            && teken == EVENT[gelijk]) {
+          gelijk++;
+          if (gelijk == EVENT.length && leeg && regelBegin >= doel) {
+            grenzen.add(new long[] {regelBegin, regels});
+            doel  = regelBegin + blokgrootte;
+          }
+        }
+      }
+    }
+    grenzen.add(new long[] {grootte, regels});
+
+    return grenzen;
+  }
+
+  public int getBlokken() {
+    return blokken;
+  }
+
+  /**
+   * Geeft de fouten van het laatste bestand per beginregel van de partij.
+   *
+   * @return
+   */
+  public Map<Integer, String> getFouten() {
+    return Collections.unmodifiableMap(fouten);
+  }
+
+  public int getParallellisme() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Geeft de tijd van het laatste bestand in milliseconden.
+   *
+   * @return
+   */
+  public long getTijd() {
+    return tijd / 1000000L;
+  }
+
+  public List<PGN> laad(String bestand) throws PgnException {
+    return laad(bestand, Charset.defaultCharset().name(), true);
+  }
+
+  /**
+   * Laadt alle partijen van het bestand.
+   *
+   * @param bestand
+   * @param charSet
+   * @param volgorde true om de partijen in de volgorde van het bestand te
+   *                  krijgen. Anders staan ze in de volgorde waarin ze gelezen
+   *                  zijn.
+   * @return
+   * @throws PgnException
+   */
+  public List<PGN> laad(String bestand, String charSet, boolean volgorde)
+      throws PgnException {
+    var start     = System.nanoTime();
+    var pad       = Path.of(bestand
+                            + (bestand.endsWith(DoosConstants.EXT_PGN)
+                                  ? "" : DoosConstants.EXT_PGN));
+    var tekenset  = Charset.forName(charSet);
+
+    fouten.clear();
+    try (var kanaal = FileChannel.open(pad, StandardOpenOption.READ)) {
+      List<ForkJoinTask<Blok>>  taken   = new ArrayList<>();
+      var                       grenzen = bepaalBlokken(kanaal);
+      var                       klaar   = new ConcurrentLinkedQueue<PGN>();
+      blokken = grenzen.size() - 1;
+      for (var i = 0; i < blokken; i++) {
+        var begin   = grenzen.get(i)[0];
+        var buffer  = kanaal.map(FileChannel.MapMode.READ_ONLY, begin,
+                                 grenzen.get(i + 1)[0] - begin);
+        var blok    = new Blok(buffer, tekenset, (int) grenzen.get(i)[1],
+                               volgorde ? null : klaar);
+        taken.add(pool.submit(blok::lees));
+      }
+
+      List<PGN> partijen  = volgorde ? new ArrayList<>() : null;
+      for (var taak : taken) {
+        var blok  = taak.join();
+        fouten.putAll(blok.fouten);
+        if (volgorde) {
+          partijen.addAll(blok.partijen);
+        }
+      }
+
+      return volgorde ? partijen : new ArrayList<>(klaar);
+    } catch (IOException e) {
+      throw new PgnException(MessageFormat.format(
+          resourceBundle.getString(PGN.ERR_BESTAND_EXCEPTION),
+          e.getLocalizedMessage()));
+    } finally {
+      tijd  = System.nanoTime() - start;
+    }
+  }
+
+  private static class Blok {
+    private final MappedByteBuffer            buffer;
+    private final Map<Integer, String>        fouten    = new TreeMap<>();
+    private final ConcurrentLinkedQueue<PGN>  klaar;
+    private final List<PGN>                   partijen  = new ArrayList<>();
+    private final int                         regelnummer;
+    private final Charset                     tekenset;
+
+    Blok(MappedByteBuffer buffer, Charset tekenset, int regelnummer,
+         ConcurrentLinkedQueue<PGN> klaar) {
+      this.buffer       = buffer;
+      this.klaar        = klaar;
+      this.regelnummer  = regelnummer;
+      this.tekenset     = tekenset;
+    }
+
+    Blok lees() {
+      var lezer   = new Pgnlezer(tekenset.decode(buffer).toString(),
+                                 regelnummer);
+      var verder  = true;
+      while (verder) {
+        try {
+          verder  = lezer.volgende();
+          if (verder) {
+            if (null == klaar) {
+              partijen.add(lezer.getPartij());
+            } else {
+              klaar.add(lezer.getPartij());
+            }
+          }
+        } catch (PgnException e) {
+          fouten.put(lezer.getBeginregel(), e.getLocalizedMessage());
+        }
+      }
+
+      return this;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Telt het aantal stellingen (knopen) dat vanuit een stelling met alle legale
+ * zetten tot een bepaalde diepte bereikt kan worden. Door de aantallen te
+ * vergelijken met bekende waarden wordt de zettengenerator gecontroleerd.
+ *
+ * Na elke telling zijn het aantal knopen en de gebruikte tijd beschikbaar
+ * zodat ook de snelheid (knopen per seconde) gevolgd kan worden.
+ *
+ * Met een eu.debooy.caissa.Perfttabel worden de tellingen van stellingen die
+ * langs een andere zetvolgorde opnieuw bereikt worden niet herhaald.
+ *
+ * @author Marco de Booij
+ */
+public class Perft {
+  private final Perfttabel                    tabel;
+  private final CaissaConstants.Generatortype type;
+
+  private long  knopen  = 0L;
+  private long  tijd    = 0L;
+
+  public Perft() {
+    this(CaissaConstants.Generatortype.BITBORD);
+  }
+
+  public Perft(CaissaConstants.Generatortype type) {
+    this(type, null);
+  }
+
+  public Perft(CaissaConstants.Generatortype type, Perfttabel tabel) {
+    this.tabel  = tabel;
+    this.type   = type;
+  }
+
+  /**
+   * Geeft per zet het aantal knopen dat na die zet op de resterende diepte
+   * bereikt wordt. De zetten staan in UCI notatie.
+   *
+   * @param fen
+   * @param diepte
+   * @return
+   * @throws FenException
+   */
+  public Map<String, Long> divide(FEN fen, int diepte) throws FenException {
+    Map<String, Long> aantallen = new TreeMap<>();
+
+    var start = System.nanoTime();
+    knopen    = 0L;
+    if (diepte > 0) {
+      var zetten  = CaissaUtils.getZettengenerator(fen, type).getZetcodes();
+      for (var i = 0; i < zetten.size(); i++) {
+        var zet       = zetten.get(i);
+        fen.doeZet(zet);
+        var aantal    = tel(fen, diepte - 1, type, tabel);
+        fen.neemTerug();
+        aantallen.put(Zetcode.getUciNotatie(zet), aantal);
+        knopen       += aantal;
+      }
+    }
+    tijd      = System.nanoTime() - start;
+
+    return aantallen;
+  }
+
+  public long getKnopen() {
+    return knopen;
+  }
+
+  public long getKnopenPerSeconde() {
+    if (tijd == 0L) {
+      return 0L;
+    }
+
+    return knopen * 1000000000L / tijd;
+  }
+
+  /**
+   * Geeft de tijd van de laatste telling in milliseconden.
+   *
+   * @return
+   */
+  public long getTijd() {
+    return tijd / 1000000L;
+  }
+
+  public Perfttabel getPerfttabel() {
+    return tabel;
+  }
+
+  public CaissaConstants.Generatortype getType() {
+    return type;
+  }
+
+  public long perft(FEN fen, int diepte) throws FenException {
+    var start = System.nanoTime();
+    knopen    = tel(fen, diepte, type, tabel);
+    tijd      = System.nanoTime() - start;
+
+    return knopen;
+  }
+
+  /**
+   * Telt de knopen vanuit de stelling met de gegeven zettengenerator. De
+   * stelling is na de telling weer dezelfde. De tabel mag null zijn.
+   */
+  static long tel(FEN fen, int diepte, CaissaConstants.Generatortype type,
+                  Perfttabel tabel)
+      throws FenException {
+    if (diepte == 0) {
+      return 1L;
+    }
+
+    if (null != tabel && diepte > 1) {
+      var bewaard = tabel.zoek(fen.getZobrist(), diepte);
+      if (bewaard >= 0) {
+        return bewaard;
+      }
+    }
+
+    var generator = CaissaUtils.getZettengenerator(fen, type);
+    if (diepte == 1) {
+      return generator.getAantalZetten();
+    }
+
+    var aantal    = 0L;
+    var zetten    = generator.getZetcodes();
+    for (var i = 0; i < zetten.size(); i++) {
+      fen.doeZet(zetten.get(i));
+      aantal       += tel(fen, diepte - 1, type, tabel);
+      fen.neemTerug();
+    }
+
+    if (null != tabel) {
+      tabel.bewaar(fen.getZobrist(), diepte, aantal);
+    }
+
+    return aantal;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.CaissaConstants.Vervanging;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Een hashtabel met een vaste grootte voor het aantal knopen onder een
+ * stelling. De sleutel is de Zobrist sleutel van de stelling samen met de
+ * resterende diepte. Zo worden stellingen die via een andere zetvolgorde
+ * opnieuw bereikt worden maar één keer geteld.
+ *
+ * De tabel staat in twee long[]. Per plaats wordt de sleutel XOR de waarde en
+ * de waarde bewaard. De waarde bevat het aantal knopen en de diepte. Er wordt
+ * niet gesloten. Als twee threads tegelijk dezelfde plaats schrijven dan
+ * klopt de XOR niet meer en wordt de plaats als leeg gezien.
+ *
+ * Met Vervanging.ALTIJD overschrijft een nieuwe telling altijd de bestaande.
+ * Met Vervanging.DIEPTE enkel als de nieuwe diepte minstens even groot is,
+ * want een diepere telling bespaart meer werk.
+ *
+ * @author Marco de Booij
+ */
+public class Perfttabel {
+  private static final  long  DIEPTESLEUTEL = 0x9E3779B97F4A7C15L;
+  private static final  int   MAX_PLAATSEN  = 1 << 30;
+  private static final  int   PLAATSGROOTTE = 16;
+
+  private final int         masker;
+  private final long[]      sleutels;
+  private final LongAdder   treffers    = new LongAdder();
+  private final Vervanging  vervanging;
+  private final LongAdder   vragen      = new LongAdder();
+  private final long[]      waarden;
+
+  public Perfttabel(long bytes) {
+    this(bytes, Vervanging.DIEPTE);
+  }
+
+  /**
+   * Maakt een tabel die hoogstens het gegeven aantal bytes gebruikt. Het
+   * aantal plaatsen is een macht van 2.
+   *
+   * @param bytes
+   * @param vervanging
+   */
+  public Perfttabel(long bytes, Vervanging vervanging) {
+    var plaatsen  = (int) Math.min(MAX_PLAATSEN,
+                                   Long.highestOneBit(
+                                       Math.max(bytes / PLAATSGROOTTE, 1L)));
+
+    masker          = plaatsen - 1;
+    sleutels        = new long[plaatsen];
+    this.vervanging = vervanging;
+    waarden         = new long[plaatsen];
+  }
+
+  /**
+   * Bewaart het aantal knopen voor de stelling en diepte.
+   *
+   * @param zobrist
+   * @param diepte
+   * @param aantal
+   */
+  public void bewaar(long zobrist, int diepte, long aantal) {
+    var sleutel = sleutel(zobrist, diepte);
+    var plaats  = (int) sleutel & masker;
+    var waarde  = aantal << 8 | diepte;
+
+    if (Vervanging.DIEPTE == vervanging
+        && (waarden[plaats] & 0xFF) > diepte) {
+      return;
+    }
+
+    sleutels[plaats]  = sleutel ^ waarde;
+    waarden[plaats]   = waarde;
+  }
+
+  public int getGrootte() {
+    return sleutels.length;
+  }
+
+  /**
+   * Geeft het deel van de vragen dat in de tabel gevonden werd.
+   *
+   * @return
+   */
+  public double getTrefkans() {
+    var aantal  = vragen.sum();
+    if (aantal == 0L) {
+      return 0.0;
+    }
+
+    return (double) treffers.sum() / aantal;
+  }
+
+  public long getTreffers() {
+    return treffers.sum();
+  }
+
+  public Vervanging getVervanging() {
+    return vervanging;
+  }
+
+  public long getVragen() {
+    return vragen.sum();
+  }
+
+  /**
+   * Maakt de tabel en de tellers leeg.
+   */
+  public void leeg() {
+    for (var i = 0; i < sleutels.length; i++) {
+      sleutels[i] = 0L;
+      waarden[i]  = 0L;
+    }
+    treffers.reset();
+    vragen.reset();
+  }
+
+  private static long sleutel(long zobrist, int diepte) {
+    return zobrist ^ (DIEPTESLEUTEL * (diepte + 1));
+  }
+
+  /**
+   * Geeft het aantal knopen voor de stelling en diepte of -1 als het niet in
+   * de tabel staat.
+   *
+   * @param zobrist
+   * @param diepte
+   * @return
+   */
+  public long zoek(long zobrist, int diepte) {
+    var sleutel = sleutel(zobrist, diepte);
+    var plaats  = (int) sleutel & masker;
+    var waarde  = waarden[plaats];
+
+    vragen.increment();
+    if ((sleutels[plaats] ^ waarde) != sleutel
+        || (waarde & 0xFF) != diepte) {
+      return -1L;
+    }
+    treffers.increment();
+
+    return waarde >>> 8;
+  }
+}
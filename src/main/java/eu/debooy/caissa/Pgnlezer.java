@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.DoosConstants;
+import eu.debooy.doosutils.access.TekstBestand;
+import eu.debooy.doosutils.exception.BestandException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+
+
+/**
+ * Leest de partijen uit een PGN bestand één voor één. Er wordt telkens maar
+ * één partij in het geheugen gehouden zodat ook zeer grote bestanden gelezen
+ * kunnen worden. Het lezen mag op elk moment gestopt worden met close.
+ *
+ * De zetten van een partij lopen tot de regel die eindigt met de uitslag uit
+ * de Result TAG. Een partij die niet correct is geeft een PgnException. Ook
+ * een partij zonder uitslag op het einde van het bestand is niet correct.
+ * Staat er een TAG tussen de zetten dan blijft die regel ongelezen zodat de
+ * volgende partij erbij begint. Met getBeginregel en getRegelnummer is te zien
+ * waar in het bestand het lezen is.
+ *
+ * @author Marco de Booij
+ */
+public class Pgnlezer implements AutoCloseable {
+  protected static  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle("CaissaCore");
+
+  private final TekstBestand  input;
+  private final String        tekst;
+
+  private int     aantal      = 0;
+  private int     beginregel  = 0;
+  private PGN     partij      = null;
+  private int     positie     = 0;
+  private int     regelnummer = 0;
+  private String  teruggelegd = null;
+
+  public Pgnlezer(String bestand) throws PgnException {
+    this(bestand, Charset.defaultCharset().name());
+  }
+
+  public Pgnlezer(String bestand, String charSet) throws PgnException {
+    try {
+      input = new TekstBestand.Builder()
+                              .setBestand(bestand
+                                  + (bestand.endsWith(DoosConstants.EXT_PGN)
+                                        ? "" : DoosConstants.EXT_PGN))
+                              .setCharset(charSet).build();
+    } catch (BestandException e) {
+      throw new PgnException(e.getLocalizedMessage());
+    }
+    tekst = null;
+  }
+
+  /**
+   * Leest de partijen uit een stuk van een bestand dat al in het geheugen
+   * staat. De regelnummers beginnen na de gegeven regel.
+   *
+   * @param tekst
+   * @param regelnummer het aantal regels in het bestand voor de tekst.
+   */
+  Pgnlezer(String tekst, int regelnummer) {
+    input             = null;
+    this.regelnummer  = regelnummer;
+    this.tekst        = tekst;
+  }
+
+  @Override
+  public void close() throws PgnException {
+    if (null == input) {
+      return;
+    }
+
+    try {
+      input.close();
+    } catch (BestandException e) {
+      throw new PgnException(e.getLocalizedMessage());
+    }
+  }
+
+  /**
+   * Geeft het aantal partijen dat al gelezen is.
+   *
+   * @return
+   */
+  public int getAantal() {
+    return aantal;
+  }
+
+  /**
+   * Geeft het regelnummer van de eerste TAG van de huidige partij.
+   *
+   * @return
+   */
+  public int getBeginregel() {
+    return beginregel;
+  }
+
+  public PGN getPartij() {
+    return partij;
+  }
+
+  /**
+   * Geeft het regelnummer van de laatst gelezen regel.
+   *
+   * @return
+   */
+  public int getRegelnummer() {
+    return regelnummer;
+  }
+
+  private boolean heeftRegel() {
+    if (null != teruggelegd) {
+      return true;
+    }
+    if (null == input) {
+      return positie < tekst.length();
+    }
+
+    return input.hasNext();
+  }
+
+  private String leesRegel() throws BestandException {
+    if (null != teruggelegd) {
+      var regel   = teruggelegd;
+      teruggelegd = null;
+
+      return regel;
+    }
+
+    regelnummer++;
+    if (null != input) {
+      return input.next();
+    }
+
+    var einde = tekst.indexOf('\n', positie);
+    if (einde < 0) {
+      einde   = tekst.length();
+    }
+    var begin = positie;
+    positie   = einde + 1;
+    if (einde > begin && tekst.charAt(einde - 1) == '\r') {
+      einde--;
+    }
+
+    return tekst.substring(begin, einde);
+  }
+
+  private boolean leesPartij() throws BestandException, PgnException {
+    var lijn    = leesRegel();
+    partij      = new PGN();
+
+    // Zoek naar de eerste TAG
+    while (heeftRegel() && !lijn.startsWith("[")) {
+      lijn  = leesRegel();
+    }
+
+    // Is er nog een partij gevonden?
+    if (!heeftRegel()) {
+      return false;
+    }
+
+    // Verwerk de TAGs
+    beginregel  = regelnummer;
+    while (heeftRegel() && lijn.startsWith("[")) {
+      schrijfTag(lijn);
+
+      lijn  = leesRegel();
+    }
+
+    // Verwerk de zetten
+    var uitslag = partij.getTag(PGN.PGNTAG_RESULT);
+    if (null == uitslag) {
+      throw
+          new PgnException(resourceBundle.getString(PGN.ERR_PGN_INVALID));
+    }
+
+    var zetten  = new StringBuilder();
+    while (heeftRegel() && !lijn.trim().endsWith(uitslag)) {
+      if (lijn.startsWith("[")) {
+        // Hier begint waarschijnlijk de volgende partij.
+        teruggelegd = lijn;
+        throw new PgnException(MessageFormat.format(
+            resourceBundle.getString(PGN.ERR_BESTAND),
+            regelnummer));
+      }
+      zetten.append(lijn.trim());
+      if (!lijn.endsWith(".")) {
+        zetten.append(" ");
+      }
+
+      lijn  = leesRegel();
+    }
+
+    // De uitslag is er niet voor het einde. De fout staat op de regel erna
+    // zoals bij een TAG tussen de zetten.
+    if (!lijn.trim().endsWith(uitslag)) {
+      throw new PgnException(MessageFormat.format(
+          resourceBundle.getString(PGN.ERR_BESTAND),
+          regelnummer + 1));
+    }
+    zetten.append(lijn.trim());
+
+    return setZetten(zetten.toString().trim(), uitslag);
+  }
+
+  private void schrijfTag(String line) throws PgnException {
+    var tag   = line.substring(1, line.indexOf(' '));
+    var value = line.substring(line.indexOf('"') + 1, line.lastIndexOf('"'));
+    partij.addTag(tag, value);
+  }
+
+  private boolean setZetten(String zetten, String uitslag)
+      throws PgnException {
+    partij.setZetten(
+        zetten.substring(0, zetten.length() - uitslag.length())
+                 .trim());
+
+    if (!partij.isValid()) {
+      throw
+          new PgnException(resourceBundle.getString(PGN.ERR_PGN_INVALID));
+    }
+
+    return true;
+  }
+
+  /**
+   * Leest de volgende partij. Geeft false als er geen partijen meer zijn.
+   *
+   * @return
+   * @throws PgnException
+   */
+  public boolean volgende() throws PgnException {
+    try {
+      while (heeftRegel()) {
+        if (leesPartij()) {
+          aantal++;
+          return true;
+        }
+      }
+    } catch (BestandException e) {
+      throw new PgnException(e.getLocalizedMessage());
+    }
+
+    partij  = null;
+
+    return false;
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.CaissaConstants.Pgntoken;
+import eu.debooy.caissa.exceptions.PgnException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+
+
+/**
+ * Splitst een PGN bestand in tokens zonder het in regels of Strings om te
+ * zetten. Er wordt rechtstreeks op de bytes gewerkt van een ByteBuffer, die
+ * ook een MappedByteBuffer mag zijn, of van een byte[]. Een token is een
+ * stuk van de buffer tussen getBegin en getEinde. Een String wordt pas
+ * gemaakt als getTekst, getNaam of getWaarde aangeroepen wordt.
+ *
+ * De tokens zijn een TAG met een naam en een waarde, een ZETNUMMER zoals
+ * "12." of "12...", een ZET, een COMMENTAAR tussen { en } of van ; tot het
+ * einde van de regel, een NAG zoals $1, het begin en einde van een variant en
+ * de UITSLAG. Een regel die met % begint wordt overgeslagen. De rokade mag
+ * met de letter O of met het cijfer 0 geschreven zijn.
+ *
+ * De tekenset wordt enkel gebruikt om de Strings van getTekst, getNaam en
+ * getWaarde te maken. Het splitsen zelf gebeurt op ASCII tekens.
+ *
+ * Dit is een op zichzelf staande API. Pgnlezer en ParallellePgnlader
+ * gebruiken hem niet: zij lezen regels en maken volledige PGN objecten met
+ * foutmeldingen per regel. De Pgntokenizer is voor wie een bestand snel wil
+ * doorlopen zonder PGN objecten te maken, bijvoorbeeld om TAGs te tellen of
+ * te filteren.
+ *
+ * @author Marco de Booij
+ */
+public class Pgntokenizer {
+  private static final  boolean[] SCHEIDING = new boolean[256];
+
+  protected static  ResourceBundle  resourceBundle  =
+      ResourceBundle.getBundle("CaissaCore");
+
+  static {
+    for (var teken : " \t\r\n{}()[];$\"".toCharArray()) {
+      SCHEIDING[teken]  = true;
+    }
+  }
+
+  private final ByteBuffer  buffer;
+  private final int         einde;
+  private final Charset     tekenset;
+
+  private int       begin         = 0;
+  private int       naamBegin     = 0;
+  private int       naamEinde     = 0;
+  private int       positie;
+  private int       regelBegin;
+  private int       regelnummer   = 1;
+  private Pgntoken  soort         = null;
+  private int       tokenEinde    = 0;
+  private int       tokenregel    = 0;
+
+  public Pgntokenizer(byte[] bytes, Charset tekenset) {
+    this(ByteBuffer.wrap(bytes), tekenset);
+  }
+
+  public Pgntokenizer(ByteBuffer buffer, Charset tekenset) {
+    this.buffer   = buffer;
+    this.einde    = buffer.limit();
+    this.tekenset = tekenset;
+    positie       = buffer.position();
+    regelBegin    = positie;
+  }
+
+  /**
+   * Mapt het bestand in het geheugen. Het bestand mag niet groter zijn dan
+   * 2 GB.
+   *
+   * @param bestand
+   * @param tekenset
+   * @throws IOException
+   */
+  public Pgntokenizer(Path bestand, Charset tekenset) throws IOException {
+    this(map(bestand), tekenset);
+  }
+
+  private byte byteOp(int index) {
+    return buffer.get(index);
+  }
+
+  private void enkelTeken(Pgntoken token) {
+    begin       = positie++;
+    tokenEinde  = positie;
+    soort       = token;
+  }
+
+  private PgnException fout() {
+    return new PgnException(MessageFormat.format(
+        resourceBundle.getString(PGN.ERR_BESTAND), regelnummer));
+  }
+
+  public int getBegin() {
+    return begin;
+  }
+
+  public int getEinde() {
+    return tokenEinde;
+  }
+
+  /**
+   * Geeft de naam van een TAG.
+   *
+   * @return
+   */
+  public String getNaam() {
+    return tekst(naamBegin, naamEinde);
+  }
+
+  /**
+   * Geeft de waarde van een NAG.
+   *
+   * @return
+   */
+  public int getNag() {
+    var nag = 0;
+    for (var i = begin; i < tokenEinde; i++) {
+      nag = nag * 10 + byteOp(i) - '0';
+    }
+
+    return nag;
+  }
+
+  /**
+   * Geeft het regelnummer waar het token begint.
+   *
+   * @return
+   */
+  public int getRegelnummer() {
+    return tokenregel;
+  }
+
+  public Pgntoken getSoort() {
+    return soort;
+  }
+
+  /**
+   * Geeft de tekst van het token. Bij een TAG is dit de waarde zoals ze in het
+   * bestand staat, bij een COMMENTAAR de tekst zonder { en } of ; en bij een
+   * ZETNUMMER en een NAG enkel het getal.
+   *
+   * @return
+   */
+  public String getTekst() {
+    return tekst(begin, tokenEinde);
+  }
+
+  /**
+   * Geeft de waarde van een TAG zonder de \ voor een " of een \.
+   *
+   * @return
+   */
+  public String getWaarde() {
+    var waarde  = getTekst();
+    if (waarde.indexOf('\\') < 0) {
+      return waarde;
+    }
+
+    var zonder  = new StringBuilder(waarde.length());
+    for (var i = 0; i < waarde.length(); i++) {
+      var teken = waarde.charAt(i);
+      if (teken == '\\' && i + 1 < waarde.length()) {
+        teken   = waarde.charAt(++i);
+      }
+      zonder.append(teken);
+    }
+
+    return zonder.toString();
+  }
+
+  /**
+   * Is de naam van de TAG gelijk aan de gegeven naam? Er wordt geen String
+   * gemaakt.
+   *
+   * @param naam
+   * @return
+   */
+  public boolean isNaam(String naam) {
+    if (naam.length() != naamEinde - naamBegin) {
+      return false;
+    }
+    for (var i = 0; i < naam.length(); i++) {
+      if (byteOp(naamBegin + i) != naam.charAt(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean isScheiding(byte teken) {
+    return SCHEIDING[teken & 0xFF];
+  }
+
+  private boolean isUitslag() {
+    var lengte  = tokenEinde - begin;
+
+    if (lengte == 3) {
+      return byteOp(begin + 1) == '-'
+             && ((byteOp(begin) == '1' && byteOp(begin + 2) == '0')
+                 || (byteOp(begin) == '0' && byteOp(begin + 2) == '1'));
+    }
+
+    return lengte == 7 && "1/2-1/2".equals(getTekst());
+  }
+
+  private boolean isZetnummer() {
+    for (var i = begin; i < positie; i++) {
+      var teken = byteOp(i);
+      if (teken < '0' || teken > '9') {
+        return false;
+      }
+    }
+
+    return positie > begin;
+  }
+
+  private void leesCommentaar() throws PgnException {
+    begin = ++positie;
+    while (positie < einde && byteOp(positie) != '}') {
+      volgendeRegel();
+      positie++;
+    }
+    if (positie == einde) {
+      throw new PgnException(
+          resourceBundle.getString(PGN.ERR_PGN_ONGESLOTEN));
+    }
+    tokenEinde  = positie++;
+    soort       = Pgntoken.COMMENTAAR;
+  }
+
+  private void leesRegelcommentaar() {
+    begin = ++positie;
+    while (positie < einde && byteOp(positie) != '\n') {
+      positie++;
+    }
+    tokenEinde  = positie;
+    if (tokenEinde > begin && byteOp(tokenEinde - 1) == '\r') {
+      tokenEinde--;
+    }
+    soort       = Pgntoken.COMMENTAAR;
+  }
+
+  private void leesSymbool() {
+    begin = positie;
+    while (positie < einde && !isScheiding(byteOp(positie))) {
+      var teken = byteOp(positie);
+      // Een zetnummer eindigt met punten. Bv. 1.e4 of 1...e5
+      if (teken == '.' && isZetnummer()) {
+        tokenEinde  = positie;
+        while (positie < einde && byteOp(positie) == '.') {
+          positie++;
+        }
+        soort       = Pgntoken.ZETNUMMER;
+        return;
+      }
+      positie++;
+    }
+    tokenEinde  = positie;
+    if (isUitslag()) {
+      soort     = Pgntoken.UITSLAG;
+    } else {
+      soort     = Pgntoken.ZET;
+    }
+  }
+
+  private void leesTag() throws PgnException {
+    positie++;
+    slaWitOver();
+    naamBegin = positie;
+    while (positie < einde && !isScheiding(byteOp(positie))) {
+      positie++;
+    }
+    naamEinde = positie;
+    slaWitOver();
+    if (naamBegin == naamEinde || positie == einde
+        || byteOp(positie) != '"') {
+      throw fout();
+    }
+
+    begin     = ++positie;
+    while (positie < einde && byteOp(positie) != '"') {
+      if (byteOp(positie) == '\\') {
+        positie++;
+      }
+      positie++;
+    }
+    if (positie >= einde) {
+      throw fout();
+    }
+    tokenEinde  = positie++;
+    slaWitOver();
+    if (positie == einde || byteOp(positie) != ']') {
+      throw fout();
+    }
+    positie++;
+    soort       = Pgntoken.TAG;
+  }
+
+  private static ByteBuffer map(Path bestand) throws IOException {
+    try (var kanaal = FileChannel.open(bestand, StandardOpenOption.READ)) {
+      return kanaal.map(FileChannel.MapMode.READ_ONLY, 0, kanaal.size());
+    }
+  }
+
+  private void slaWitOver() {
+    while (positie < einde) {
+      var teken = byteOp(positie);
+      if (teken == '%' && positie == regelBegin) {
+        while (positie < einde && byteOp(positie) != '\n') {
+          positie++;
+        }
+        continue;
+      }
+      if (teken != ' ' && teken != '\t' && teken != '\r' && teken != '\n') {
+        return;
+      }
+      volgendeRegel();
+      positie++;
+    }
+  }
+
+  private String tekst(int van, int tot) {
+    var bytes = new byte[tot - van];
+    buffer.get(van, bytes);
+
+    return new String(bytes, tekenset);
+  }
+
+  /**
+   * Leest het volgende token. Geeft EINDE als de buffer helemaal gelezen is.
+   *
+   * @return
+   * @throws PgnException
+   */
+  public Pgntoken volgende() throws PgnException {
+    slaWitOver();
+    tokenregel  = regelnummer;
+    naamBegin   = 0;
+    naamEinde   = 0;
+    if (positie >= einde) {
+      begin       = einde;
+      tokenEinde  = einde;
+      soort       = Pgntoken.EINDE;
+      return soort;
+    }
+
+    switch (byteOp(positie)) {
+      case '[' -> leesTag();
+      case '{' -> leesCommentaar();
+      case ';' -> leesRegelcommentaar();
+      case '(' -> enkelTeken(Pgntoken.VARIANTBEGIN);
+      case ')' -> enkelTeken(Pgntoken.VARIANTEINDE);
+      case '$' -> {
+        begin       = ++positie;
+        while (positie < einde
+               && byteOp(positie) >= '0' && byteOp(positie) <= '9') {
+          positie++;
+        }
+        tokenEinde  = positie;
+        soort       = Pgntoken.NAG;
+      }
+      case '*' -> {
+        begin       = positie++;
+        tokenEinde  = positie;
+        soort       = Pgntoken.UITSLAG;
+      }
+      default -> {
+        if (isScheiding(byteOp(positie))) {
+          throw fout();
+        }
+        leesSymbool();
+      }
+    }
+
+    return soort;
+  }
+
+  private void volgendeRegel() {
+    if (byteOp(positie) == '\n') {
+      regelnummer++;
+      regelBegin  = positie + 1;
+    }
+  }
+}
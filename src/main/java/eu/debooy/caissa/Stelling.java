@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+/**
+ * Een onveranderlijke stelling met enkel primitieve velden. Een Stelling kan
+ * zonder kopie tussen threads gedeeld worden.
+ *
+ * Het bord is een int[120] zoals in eu.debooy.caissa.FEN. Voor de klassen in
+ * dit package geeft bord() het bord zonder kopie. getBord geeft een kopie.
+ * De rokademogelijkheden staan in een int: 1 is wit kort, 2 wit lang, 4 zwart
+ * kort en 8 zwart lang.
+ *
+ * Gelijkheid vergelijkt eerst de Zobrist sleutel. Ook het type van de FEN
+ * telt mee omdat het de rokade in de FEN bepaalt, zoals bij FEN.equals. De
+ * hashCode is afgeleid van de Zobrist sleutel en het type van de FEN.
+ *
+ * Met new FEN(stelling) en fen.getStelling() wordt een Stelling omgezet.
+ *
+ * @author Marco de Booij
+ */
+public final class Stelling implements Serializable {
+  private static final long serialVersionUID  = 1L;
+
+  private final char    aanZet;
+  private final int[]   bord;
+  private final int     enPassant;
+  private final int     fenType;
+  private final int     halvezetten;
+  private final char    kortetoren;
+  private final char    langetoren;
+  private final int     rokade;
+  private final int     zetnummer;
+  private final long    zobrist;
+
+  /**
+   * Het bord wordt niet gekopieerd. Het mag na de aanroep niet meer gewijzigd
+   * worden.
+   */
+  Stelling(int[] bord, char aanZet, int rokade, int enPassant,
+           char kortetoren, char langetoren, int fenType, int halvezetten,
+           int zetnummer, long zobrist) {
+    this.aanZet       = aanZet;
+    this.bord         = bord;
+    this.enPassant    = enPassant;
+    this.fenType      = fenType;
+    this.halvezetten  = halvezetten;
+    this.kortetoren   = kortetoren;
+    this.langetoren   = langetoren;
+    this.rokade       = rokade;
+    this.zetnummer    = zetnummer;
+    this.zobrist      = zobrist;
+  }
+
+  /**
+   * Geeft het bord zonder kopie. Het mag niet gewijzigd worden.
+   */
+  int[] bord() {
+    return bord;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof Stelling)) {
+      return false;
+    }
+
+    if (this == obj) {
+      return true;
+    }
+
+    final Stelling other = (Stelling) obj;
+    return zobrist == other.zobrist
+        && aanZet == other.aanZet
+        && rokade == other.rokade
+        && enPassant == other.enPassant
+        && halvezetten == other.halvezetten
+        && zetnummer == other.zetnummer
+        && kortetoren == other.kortetoren
+        && langetoren == other.langetoren
+        && fenType == other.fenType
+        && Arrays.equals(bord, other.bord);
+  }
+
+  public char getAanZet() {
+    return aanZet;
+  }
+
+  public int[] getBord() {
+    return bord.clone();
+  }
+
+  /**
+   * Geeft het en passant veld in de interne notatie of 0.
+   *
+   * @return
+   */
+  public int getEnPassantVeld() {
+    return enPassant;
+  }
+
+  int getFenType() {
+    return fenType;
+  }
+
+  public int getHalvezetten() {
+    return halvezetten;
+  }
+
+  public char getKorteToren() {
+    return kortetoren;
+  }
+
+  public char getLangeToren() {
+    return langetoren;
+  }
+
+  public int getRokade() {
+    return rokade;
+  }
+
+  /**
+   * Geeft het stuk op het veld in de interne notatie.
+   *
+   * @param veld
+   * @return
+   */
+  public int getStuk(int veld) {
+    return bord[veld];
+  }
+
+  public int getZetnummer() {
+    return zetnummer;
+  }
+
+  public long getZobrist() {
+    return zobrist;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(zobrist) + fenType;
+  }
+
+  public boolean isWitAanZet() {
+    return aanZet == CaissaConstants.WIT;
+  }
+
+  public boolean isWitKorteRokade() {
+    return (rokade & 1) != 0;
+  }
+
+  public boolean isWitLangeRokade() {
+    return (rokade & 2) != 0;
+  }
+
+  public boolean isZwartKorteRokade() {
+    return (rokade & 4) != 0;
+  }
+
+  public boolean isZwartLangeRokade() {
+    return (rokade & 8) != 0;
+  }
+
+  public FEN toFen() {
+    return new FEN(this);
+  }
+
+  @Override
+  public String toString() {
+    return toFen().getFen();
+  }
+}
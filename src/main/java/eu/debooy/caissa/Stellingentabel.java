@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+
+/**
+ * Bewaart elke stelling maar één keer en geeft ze een volgnummer. Dit is
+ * bedoeld voor grote verzamelingen partijen waar dezelfde stellingen, zoals
+ * die uit de opening, in duizenden partijen voorkomen.
+ *
+ * Twee stellingen zijn gelijk als hun FEN.getKorteFen() gelijk is: de stukken,
+ * wie aan zet is, de rokades en het en passant veld. De tellers tellen niet
+ * mee. De sleutel is de Zobrist sleutel. Bij een gelijke sleutel wordt het
+ * bord vergeleken zodat een botsing geen foute stelling geeft.
+ *
+ * Per stelling wordt een eu.debooy.caissa.Stelling zonder tellers bewaard en
+ * geteld hoe dikwijls ze toegevoegd werd. De korte FEN wordt pas gemaakt als
+ * ze gevraagd wordt.
+ *
+ * Deze class is niet thread safe.
+ *
+ * @author Marco de Booij
+ */
+public class Stellingentabel {
+  private static final  int BEGINGROOTTE    = 1 << 10;
+  // Geschat aantal bytes voor een Stelling met zijn int[120] bord.
+  private static final  int STELLINGGROOTTE = 552;
+
+  private int[]       aantallen;
+  private int         grootte;
+  private String[]    korteFens;
+  private int         masker;
+  private int[]       plaatsen;
+  private long[]      sleutels;
+  private Stelling[]  stellingen;
+  private long        toevoegingen;
+
+  public Stellingentabel() {
+    leeg();
+  }
+
+  /**
+   * Geeft hoe dikwijls de stelling met dit volgnummer toegevoegd werd.
+   *
+   * @param id
+   * @return
+   */
+  public int getAantal(int id) {
+    return aantallen[Objects.checkIndex(id, grootte)];
+  }
+
+  /**
+   * Geeft een schatting van het aantal bytes dat niet gebruikt wordt omdat
+   * een stelling die al bestaat niet opnieuw bewaard wordt.
+   *
+   * @return
+   */
+  public long getBespaard() {
+    return (toevoegingen - grootte) * STELLINGGROOTTE;
+  }
+
+  /**
+   * Geeft een schatting van het aantal bytes dat de tabel gebruikt.
+   *
+   * @return
+   */
+  public long getGeheugen() {
+    var geheugen  = sleutels.length * 8L + plaatsen.length * 4L
+                    + stellingen.length * 12L
+                    + (long) grootte * STELLINGGROOTTE;
+    for (var i = 0; i < grootte; i++) {
+      if (null != korteFens[i]) {
+        geheugen += 40L + korteFens[i].length();
+      }
+    }
+
+    return geheugen;
+  }
+
+  /**
+   * Geeft het aantal verschillende stellingen.
+   *
+   * @return
+   */
+  public int getGrootte() {
+    return grootte;
+  }
+
+  /**
+   * Geeft de korte FEN van de stelling met dit volgnummer. Het is steeds
+   * dezelfde String.
+   *
+   * @param id
+   * @return
+   */
+  public String getKorteFen(int id) {
+    if (null == korteFens[Objects.checkIndex(id, grootte)]) {
+      korteFens[id] = stellingen[id].toFen().getKorteFen();
+    }
+
+    return korteFens[id];
+  }
+
+  /**
+   * Geeft de stelling met dit volgnummer. Het is steeds dezelfde Stelling
+   * met 0 halve zetten en zetnummer 1.
+   *
+   * @param id
+   * @return
+   */
+  public Stelling getStelling(int id) {
+    return stellingen[Objects.checkIndex(id, grootte)];
+  }
+
+  /**
+   * Geeft het aantal keer dat er een stelling toegevoegd werd.
+   *
+   * @return
+   */
+  public long getToevoegingen() {
+    return toevoegingen;
+  }
+
+  private void groei() {
+    var capaciteit  = stellingen.length * 2;
+
+    aantallen   = Arrays.copyOf(aantallen, capaciteit);
+    korteFens   = Arrays.copyOf(korteFens, capaciteit);
+    stellingen  = Arrays.copyOf(stellingen, capaciteit);
+    maakIndex(capaciteit * 2);
+    for (var id = 0; id < grootte; id++) {
+      var zobrist = stellingen[id].getZobrist();
+      var i       = (int) zobrist & masker;
+      while (plaatsen[i] != 0) {
+        i = (i + 1) & masker;
+      }
+      plaatsen[i] = id + 1;
+      sleutels[i] = zobrist;
+    }
+  }
+
+  private static boolean isGelijk(Stelling stelling, FEN fen) {
+    return stelling.getAanZet() == fen.getAanZet()
+           && stelling.getRokade() == fen.getRokadeCode()
+           && stelling.getEnPassantVeld() == fen.getEnPassantVeld()
+           && stelling.getKorteToren() == fen.kortetoren()
+           && stelling.getLangeToren() == fen.langetoren()
+           && Arrays.equals(stelling.bord(), fen.bord());
+  }
+
+  public final void leeg() {
+    aantallen     = new int[BEGINGROOTTE];
+    grootte       = 0;
+    korteFens     = new String[BEGINGROOTTE];
+    stellingen    = new Stelling[BEGINGROOTTE];
+    toevoegingen  = 0;
+    maakIndex(BEGINGROOTTE * 2);
+  }
+
+  private void maakIndex(int lengte) {
+    masker    = lengte - 1;
+    plaatsen  = new int[lengte];
+    sleutels  = new long[lengte];
+  }
+
+  /**
+   * Geeft de plaats van de stelling in de index of de lege plaats waar ze
+   * moet komen.
+   */
+  private int plaats(FEN fen) {
+    var zobrist = fen.getZobrist();
+    var i       = (int) zobrist & masker;
+    while (plaatsen[i] != 0
+           && (sleutels[i] != zobrist
+               || !isGelijk(stellingen[plaatsen[i] - 1], fen))) {
+      i = (i + 1) & masker;
+    }
+
+    return i;
+  }
+
+  /**
+   * Voegt de stelling toe als ze nog niet bestaat en telt ze. Geeft het
+   * volgnummer van de stelling. De volgnummers beginnen bij 0 en volgen
+   * elkaar op.
+   *
+   * @param fen
+   * @return
+   */
+  public int voegToe(FEN fen) {
+    toevoegingen++;
+
+    var i = plaats(fen);
+    if (plaatsen[i] != 0) {
+      aantallen[plaatsen[i] - 1]++;
+      return plaatsen[i] - 1;
+    }
+
+    if (grootte == stellingen.length) {
+      groei();
+      i = plaats(fen);
+    }
+
+    stellingen[grootte] = fen.getStelling(0, 1);
+    aantallen[grootte]  = 1;
+    plaatsen[i]         = grootte + 1;
+    sleutels[i]         = fen.getZobrist();
+
+    return grootte++;
+  }
+
+  /**
+   * Geeft het volgnummer van de stelling of -1 als ze niet in de tabel zit.
+   *
+   * @param fen
+   * @return
+   */
+  public int zoek(FEN fen) {
+    var i = plaats(fen);
+
+    return plaatsen[i] - 1;
+  }
+}
@@ -183,9 +183,14 @@ public class Zet implements Comparable<Zet>, Serializable {
     }
   }
 
+  /**
+   * Bij een rokade staat de koning daarna op de g-lijn (kort) of de c-lijn
+   * (lang). Zo is het ook bij Chess960 waar de koning op de g-lijn kan blijven
+   * staan.
+   */
   private String doeRokade() {
-    return ((van - naar) < 0) ? CaissaConstants.KORTE_ROCHADE
-                              : CaissaConstants.LANGE_ROCHADE;
+    return (naar % 10 == 7) ? CaissaConstants.KORTE_ROCHADE
+                            : CaissaConstants.LANGE_ROCHADE;
   }
 
   @Override
@@ -282,11 +287,7 @@ public class Zet implements Comparable<Zet>, Serializable {
     var zet = new StringBuilder();
 
     if (rokade) {
-      if ((van - naar) < 0) {
-        zet.append(CaissaConstants.KORTE_ROCHADE);
-      } else {
-        zet.append(CaissaConstants.LANGE_ROCHADE);
-      }
+      zet.append(doeRokade());
     } else {
       zet.append(stuk);
       zet.append(CaissaUtils.internToExtern(van));
@@ -374,6 +375,10 @@ public class Zet implements Comparable<Zet>, Serializable {
     return mat;
   }
 
+  public boolean isRokade() {
+    return rokade;
+  }
+
   public boolean isSchaak() {
     return schaak;
   }
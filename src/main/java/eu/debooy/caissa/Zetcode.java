@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.ZetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Een zet als één int. Zo kunnen zetten gegenereerd en uitgevoerd worden
+ * zonder voor elke zet een Zet te maken. De bits zijn:
+ *
+ *  0 -  6 het veld van vertrek (interne notatie)
+ *  7 - 13 het veld van aankomst (interne notatie)
+ * 14 - 16 het stuk (CaissaConstants.PION tot CaissaConstants.KONING)
+ * 17 - 19 het geslagen stuk of 0
+ * 20 - 22 het promotiestuk of 0
+ * 23      en passant
+ * 24      korte rokade
+ * 25      lange rokade
+ *
+ * De stukken worden zonder kleur bewaard. De kleur volgt uit de stelling.
+ *
+ * @author Marco de Booij
+ */
+public final class Zetcode {
+  public static final int EN_PASSANT    = 1 << 23;
+  public static final int KORTE_ROKADE  = 1 << 24;
+  public static final int LANGE_ROKADE  = 1 << 25;
+
+  private Zetcode() {}
+
+  public static int getGeslagen(int zet) {
+    return (zet >>> 17) & 0x7;
+  }
+
+  public static int getNaar(int zet) {
+    return (zet >>> 7) & 0x7F;
+  }
+
+  public static int getPromotie(int zet) {
+    return (zet >>> 20) & 0x7;
+  }
+
+  public static int getStuk(int zet) {
+    return (zet >>> 14) & 0x7;
+  }
+
+  public static String getUciNotatie(int zet) {
+    var uci       = new StringBuilder();
+    var promotie  = getPromotie(zet);
+
+    uci.append(CaissaUtils.internToExtern(getVan(zet)))
+       .append(CaissaUtils.internToExtern(getNaar(zet)));
+    if (promotie != 0) {
+      uci.append(Character.toLowerCase(
+                     CaissaConstants.NOTATIE_STUKKEN.charAt(promotie - 1)));
+    }
+
+    return uci.toString();
+  }
+
+  public static int getVan(int zet) {
+    return zet & 0x7F;
+  }
+
+  public static boolean isEnPassant(int zet) {
+    return (zet & EN_PASSANT) != 0;
+  }
+
+  public static boolean isRokade(int zet) {
+    return (zet & (KORTE_ROKADE | LANGE_ROKADE)) != 0;
+  }
+
+  public static boolean isSlagzet(int zet) {
+    return getGeslagen(zet) != 0;
+  }
+
+  /**
+   * Maakt de code van een zet.
+   *
+   * @param van Het veld van vertrek in de interne notatie.
+   * @param naar Het veld van aankomst in de interne notatie.
+   * @param stuk Het stuk zonder kleur.
+   * @param geslagen Het geslagen stuk zonder kleur of 0.
+   * @param promotie Het promotiestuk zonder kleur of 0.
+   * @param vlaggen EN_PASSANT, KORTE_ROKADE, LANGE_ROKADE of 0.
+   * @return
+   */
+  public static int maak(int van, int naar, int stuk, int geslagen,
+                         int promotie, int vlaggen) {
+    return van | naar << 7 | stuk << 14 | geslagen << 17 | promotie << 20
+           | vlaggen;
+  }
+
+  /**
+   * Maakt de code van een Zet.
+   *
+   * @param zet
+   * @param geslagen Het geslagen stuk zonder kleur of 0.
+   * @return
+   */
+  public static int maak(Zet zet, int geslagen) {
+    var promotie  = zet.getPromotieStuk() == ' '
+                        ? 0
+                        : CaissaConstants.NOTATIE_STUKKEN
+                                         .indexOf(zet.getPromotieStuk()) + 1;
+    var stuk      = CaissaConstants.NOTATIE_STUKKEN.indexOf(zet.getStuk()) + 1;
+    var vlaggen   = 0;
+    if (zet.isEp()) {
+      geslagen  = CaissaConstants.PION;
+      vlaggen   = EN_PASSANT;
+    }
+    if (zet.isRokade()) {
+      // Bij Chess960 kan de koning naar het veld van zijn toren gaan.
+      geslagen  = 0;
+      vlaggen   = zet.getNaar() % 10 == 7 ? KORTE_ROKADE : LANGE_ROKADE;
+    }
+
+    return maak(zet.getVan(), zet.getNaar(), stuk, geslagen, promotie,
+                vlaggen);
+  }
+
+  /**
+   * Maakt een Zet van de code. Schaak en de korte notatie worden niet bepaald.
+   *
+   * @param zet
+   * @return
+   */
+  public static Zet toZet(int zet) {
+    var promotie  = getPromotie(zet);
+
+    try {
+      var nieuw = new Zet(CaissaConstants.NOTATIE_STUKKEN
+                                         .charAt(getStuk(zet) - 1),
+                          getVan(zet), getNaar(zet),
+                          promotie == 0 ? ' '
+                                        : CaissaConstants.NOTATIE_STUKKEN
+                                                         .charAt(promotie - 1));
+      nieuw.setSlagzet(isSlagzet(zet) && !isEnPassant(zet));
+      nieuw.setEp(isEnPassant(zet));
+      nieuw.setRokade(isRokade(zet));
+
+      return nieuw;
+    } catch (ZetException e) {
+      Logger.getLogger(Zetcode.class.getName()).log(Level.SEVERE, null, e);
+    }
+
+    return null;
+  }
+}
@@ -20,10 +20,7 @@ package eu.debooy.caissa;
 import eu.debooy.caissa.exceptions.FenException;
 import eu.debooy.caissa.exceptions.ZetException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,7 +28,7 @@ import java.util.logging.Logger;
 /**
  * @author Marco de Booij
  */
-public class Zettengenerator {
+public class Zettengenerator implements Zettengeneratie {
   private final int       kortekoning   = CaissaUtils.externToIntern("g1");
   private final int       kortetoren;
   private final int       langekoning   = CaissaUtils.externToIntern("c1");
@@ -49,6 +46,7 @@ public class Zettengenerator {
   private boolean langeRokade   = false;
   private int     rokadekoning;
   private int     schaakDoel;
+  private boolean uniek         = false;
 
   public Zettengenerator(FEN fen) {
     this(fen, false);
@@ -58,10 +56,7 @@ public class Zettengenerator {
     this.chess960 = chess960;
     this.fen      = fen;
     bord          = fen.getBord();
-    var ep        = fen.getEnPassant();
-    if (!"-".equals(ep)) {
-      enPassant = CaissaUtils.externToIntern(ep);
-    }
+    enPassant     = fen.getEnPassantVeld();
     if (fen.getAanZet() == 'w') {
       korteRokade = fen.getWitKorteRokade();
       kortetoren  = CaissaUtils.externToIntern(fen.getWitKorteToren());
@@ -207,13 +202,13 @@ public class Zettengenerator {
       // Verzet bij rokade ook de toren.
       if (stuk == 'K' && stukNaar == CaissaConstants.TOREN) {
         zet.setRokade(true);
-        rokadeHeen(vanVeld, naarVeld);
+        rokadeHeen(naarVeld);
       }
       zet.setSchaak(isSchaak());
 
       // Zet bij rokade de toren terug.
       if (stuk == 'K' && stukNaar == CaissaConstants.TOREN) {
-        rokadeTerug(vanVeld, naarVeld);
+        rokadeTerug(naarVeld);
       }
       if (promotieStuk != ' ') {
         bord[naarVeld] = CaissaConstants.PION;
@@ -277,31 +272,45 @@ public class Zettengenerator {
     if (korteRokade || langeRokade) {
       rokade();
     }
-
-    CaissaUtils.maakUniek(zetten);
   }
 
+  @Override
   public int getAantalZetten() {
     return zetten.size();
   }
 
+  @Override
   public List<String> getNieuweStellingen() throws FenException {
     List<String>  stellingen  = new ArrayList<>();
 
     for (Zet  zet: zetten) {
-      var nieuweFen = new FEN(fen.getFen());
-      nieuweFen.doeZet(zet);
-      stellingen.add(nieuweFen.getFen());
+      fen.doeZet(zet);
+      stellingen.add(fen.getFen());
+      fen.neemTerug();
     }
 
     return stellingen;
   }
 
+  @Override
+  public Zettenlijst getZetcodes() {
+    var codes     = new Zettenlijst(zetten.size());
+    var stelling  = fen.bord();
+
+    zetten.forEach(zet -> codes.add(
+        Zetcode.maak(zet, Math.abs(stelling[zet.getNaar()]))));
+
+    return codes;
+  }
+
+  @Override
   public List<Zet> getZetten() {
-    Map<String, Zet>  zetMap  = new HashMap<>();
-    zetten.forEach(zet -> zetMap.put(zet.getZet(), zet));
+    if (!uniek) {
+      CaissaUtils.maakUniek(zetten);
+      uniek = true;
+    }
 
-    return new LinkedList<>(zetMap.values());
+    return new ArrayList<>(zetten);
   }
 
   private boolean isSchaak() {
@@ -320,43 +329,42 @@ public class Zettengenerator {
     return aanvalTorenDame(schaakDoel, 1);
  }
 
-  private boolean kanRokeren(boolean rokeren, int koning, int rokadekoning) {
+  /**
+   * Controleert of de rokade mogelijk is. Alle velden tussen de koning, de
+   * toren en hun velden van aankomst moeten leeg zijn. De koning mag niet
+   * schaak staan en niet over of op een aangevallen veld komen. Dit wordt
+   * gecontroleerd zonder de koning en de toren op het bord, zoals bij
+   * Chess960 nodig is.
+   */
+  private boolean kanRokeren(boolean rokeren, int rokadekoning) {
+    var kort  = rokadekoning == kortekoning;
+    var toren = kort ? kortetoren : langetoren;
     if (!rokeren
-        && aangevallen(koning)) {
+        || bord[toren] != CaissaConstants.TOREN
+        || aangevallen(koning)) {
       return false;
     }
 
-    int min;
-    int max;
-    var rokade      = true;
-    int rokadetoren;
-
-    // Zijn alle velden leeg? Koning en 'rokadetoren' mogen er staan.
-    if (rokadekoning == kortekoning) {
-      min         = Math.min(koning, rokadekoning-1);
-      max         = Math.max(kortetoren, rokadekoning);
-      rokadetoren = kortetoren;
-    } else {
-      min         = Math.min(langetoren, rokadekoning-1);
-      max         = Math.max(koning, rokadekoning);
-      rokadetoren = langetoren;
-    }
+    var torenNaar = kort ? rokadekoning - 1 : rokadekoning + 1;
+    var min       = Math.min(Math.min(koning, toren),
+                             Math.min(rokadekoning, torenNaar));
+    var max       = Math.max(Math.max(koning, toren),
+                             Math.max(rokadekoning, torenNaar));
     for (var i = min; i <= max; i++) {
-      if (bord[i] != 0
-          && bord[i] != CaissaConstants.KONING
-          && i != rokadetoren) {
-        rokade  = false;
+      if (bord[i] != 0 && i != koning && i != toren) {
+        return false;
       }
     }
 
-    // Komt koning schaak te staan?
-    min = Math.min(koning, rokadekoning);
-    max = Math.max(koning, rokadekoning);
-    for (var i = min; i <= max; i++) {
-      if (aangevallen(i)) {
-        rokade  = false;
-      }
+    var rokade    = true;
+    bord[koning]  = 0;
+    bord[toren]   = 0;
+    for (var i = Math.min(koning, rokadekoning);
+         i <= Math.max(koning, rokadekoning) && rokade; i++) {
+      rokade  = !aangevallen(i);
     }
+    bord[koning]  = CaissaConstants.KONING;
+    bord[toren]   = CaissaConstants.TOREN;
 
     return rokade;
   }
@@ -473,43 +481,34 @@ public class Zettengenerator {
       return;
     }
 
-    if (kanRokeren(korteRokade, koning, kortekoning)) {
+    if (kanRokeren(korteRokade, kortekoning)) {
         addZet('K', koning, kortekoning, CaissaConstants.TOREN);
     }
 
-    if (kanRokeren(langeRokade, koning, langekoning)) {
+    if (kanRokeren(langeRokade, langekoning)) {
         addZet('K', koning, langekoning, CaissaConstants.TOREN);
     }
   }
 
-  private void rokadeHeen(int vanVeld, int naarVeld) {
-    bord[vanVeld]   = 0;
-    bord[naarVeld]  = 0;
-    rokadekoning    = koning;
-    koning          = kortekoning;
-    if (vanVeld - naarVeld < 0) {
-      bord[kortekoning]   = CaissaConstants.KONING;
-      bord[kortekoning-1] = CaissaConstants.TOREN;
-    }
-    if (vanVeld - naarVeld == 2) {
-      bord[langekoning]   = CaissaConstants.KONING;
-      bord[langekoning+1] = CaissaConstants.TOREN;
-    }
+  private void rokadeHeen(int naarVeld) {
+    var kort  = naarVeld == kortekoning;
+
+    bord[koning]                              = 0;
+    bord[kort ? kortetoren : langetoren]      = 0;
+    bord[naarVeld]                            = CaissaConstants.KONING;
+    bord[kort ? naarVeld - 1 : naarVeld + 1]  = CaissaConstants.TOREN;
+    rokadekoning                              = koning;
+    koning                                    = naarVeld;
   }
 
-  private void rokadeTerug(int vanVeld, int naarVeld) {
-    koning  = rokadekoning;
-    if (vanVeld - naarVeld < 0) {
-      bord[kortekoning]   = 0;
-      bord[kortekoning+1] = 0;
-      bord[rokadekoning]  = CaissaConstants.KONING;
-      bord[kortetoren]    = CaissaConstants.TOREN;
-    } else {
-      bord[langekoning]   = 0;
-      bord[langekoning-1] = 0;
-      bord[rokadekoning]  = CaissaConstants.KONING;
-      bord[langetoren]    = CaissaConstants.TOREN;
-    }
+  private void rokadeTerug(int naarVeld) {
+    var kort  = naarVeld == kortekoning;
+
+    bord[naarVeld]                            = 0;
+    bord[kort ? naarVeld - 1 : naarVeld + 1]  = 0;
+    bord[rokadekoning]                        = CaissaConstants.KONING;
+    bord[kort ? kortetoren : langetoren]      = CaissaConstants.TOREN;
+    koning                                    = rokadekoning;
   }
 
   private void torenZet(int veld) {
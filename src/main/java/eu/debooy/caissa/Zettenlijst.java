@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import java.util.Arrays;
+
+
+/**
+ * Een lijst van zetten in de vorm van eu.debooy.caissa.Zetcode. De zetten
+ * staan in een int[] dat enkel groter gemaakt wordt als het vol is.
+ *
+ * @author Marco de Booij
+ */
+public class Zettenlijst {
+  private int   aantal  = 0;
+  private int[] zetten;
+
+  public Zettenlijst() {
+    this(64);
+  }
+
+  public Zettenlijst(int grootte) {
+    zetten  = new int[Math.max(grootte, 1)];
+  }
+
+  public void add(int zet) {
+    if (aantal == zetten.length) {
+      zetten  = Arrays.copyOf(zetten, aantal * 2);
+    }
+    zetten[aantal++]  = zet;
+  }
+
+  public void clear() {
+    aantal  = 0;
+  }
+
+  public int get(int index) {
+    if (index < 0 || index >= aantal) {
+      throw new IndexOutOfBoundsException(index);
+    }
+
+    return zetten[index];
+  }
+
+  public boolean isEmpty() {
+    return aantal == 0;
+  }
+
+  public int size() {
+    return aantal;
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(zetten, aantal);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.CaissaConstants.Zetfase;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+
+/**
+ * Geeft de legale zetten van een stelling in fasen: eerst de slagzetten en
+ * promoties, dan de stille zetten die schaak geven en als laatste de andere
+ * stille zetten. Een fase wordt pas gegenereerd als de vorige fase helemaal
+ * gelezen is en er nog een zet gevraagd wordt.
+ *
+ * De zetten zijn eu.debooy.caissa.Zetcode waarden. De slagzetten staan op
+ * volgorde van hun ruilwaarde. De schaakzetten worden rechtstreeks
+ * gegenereerd vanuit de velden rond de vijandelijke koning zodat de andere
+ * stille zetten pas gemaakt worden als ze gevraagd worden.
+ *
+ * @author Marco de Booij
+ */
+public class Zettenstroom implements PrimitiveIterator.OfInt {
+  private final BitbordZettengenerator  generator;
+  private final Zettenlijst             schaak  = new Zettenlijst();
+  private final Zettenlijst             slagen  = new Zettenlijst();
+  private final Zettenlijst             stil    = new Zettenlijst();
+
+  private Zetfase     fase    = null;
+  private int         index   = 0;
+  private Zettenlijst lijst   = null;
+
+  public Zettenstroom(FEN fen) {
+    generator = new BitbordZettengenerator(fen);
+  }
+
+  /**
+   * Geeft de fase waaruit de zetten nu komen of null als er nog niets
+   * gevraagd is.
+   *
+   * @return
+   */
+  public Zetfase getFase() {
+    return fase;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (null == lijst || index >= lijst.size()) {
+      if (!volgendeFase()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public int nextInt() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    return lijst.get(index++);
+  }
+
+  /**
+   * Zet de slagzetten en promoties op volgorde van hun ruilwaarde, de beste
+   * eerst. Bij een gelijke waarde blijft de volgorde van de generator.
+   */
+  private void ordenSlagen() {
+    var aantal  = slagen.size();
+    var zetten  = slagen.toArray();
+    var waarden = new int[aantal];
+
+    for (var i = 0; i < aantal; i++) {
+      var zet     = zetten[i];
+      var waarde  = generator.getRuilwaarde(zet);
+      var j       = i;
+      while (j > 0 && waarden[j - 1] < waarde) {
+        waarden[j]  = waarden[j - 1];
+        zetten[j]   = zetten[j - 1];
+        j--;
+      }
+      waarden[j]  = waarde;
+      zetten[j]   = zet;
+    }
+
+    slagen.clear();
+    for (var zet : zetten) {
+      slagen.add(zet);
+    }
+  }
+
+  private boolean volgendeFase() {
+    if (Zetfase.STIL == fase) {
+      return false;
+    }
+
+    index = 0;
+    if (null == fase) {
+      generator.genereerFase(slagen, true, false);
+      ordenSlagen();
+      fase  = Zetfase.SLAGEN;
+      lijst = slagen;
+    } else if (Zetfase.SLAGEN == fase) {
+      generator.genereerStil(schaak, true);
+      fase  = Zetfase.SCHAAK;
+      lijst = schaak;
+    } else {
+      generator.genereerStil(stil, false);
+      fase  = Zetfase.STIL;
+      lijst = stil;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+
+/**
+ * Haalt uit de zetten van een partij het commentaar, de varianten, de
+ * annotaties, de $nn notaties, de losse 'D' van diagram en 'N' van nieuwtje en
+ * de zetnummers met ... weg.
+ *
+ * Het resultaat is hetzelfde als dat van de vroegere reeks String.replace en
+ * indexOf lussen. Elke stap is nu 1 doorloop over dezelfde char[] waarbij de
+ * tekens die blijven naar voor geschoven worden. De stappen blijven in de oude
+ * volgorde omdat bv. een $nn het teken ervoor meeneemt.
+ *
+ * @author Marco de Booij
+ */
+final class Zettenzuiveraar {
+  // De annotaties worden in deze volgorde verwijderd. Een " =" wordt als
+  // laatste verwijderd.
+  private static final  String[]  ANNOTATIES      = {"+-", "-+", "+--", "--+",
+                                                     "+/-", "-/+", "+=", "=+",
+                                                     "~", "?", "!"};
+  private static final  String    ANNOTATIETEKENS = "+-/=~?!";
+
+  private final char[]  tekens;
+
+  private int n;
+
+  private Zettenzuiveraar(String zetten) {
+    tekens  = (" " + zetten + " ").toCharArray();
+    n       = tekens.length;
+  }
+
+  private boolean isAnnotatie(int begin, String annotatie) {
+    for (var i = 0; i < annotatie.length(); i++) {
+      if (tekens[begin + i] != annotatie.charAt(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean isCijfer(char teken) {
+    return teken >= '0' && teken <= '9';
+  }
+
+  static String zuiver(String zetten) {
+    return new Zettenzuiveraar(zetten).zuiver();
+  }
+
+  private String zuiver() {
+    verwijderSpaties();
+    verwijderLetter('D');
+    verwijderLetter('N');
+    verwijderGroepen('{');
+    verwijderGroepen('(');
+    verwijderAnnotaties();
+    verwijderDollarNotaties();
+    verwijderGesplitsteZetten();
+
+    var zuiver  = new StringBuilder(n);
+    for (var i = 0; i < n; i++) {
+      if (tekens[i] != ' ' || (i > 0 && tekens[i - 1] != ' ')) {
+        zuiver.append(tekens[i]);
+      }
+    }
+
+    return zuiver.toString().trim();
+  }
+
+  /**
+   * Verwijdert de annotaties. Een annotatie bevat geen spatie dus ze worden
+   * per woord verwijderd, in de char[] zelf en in de volgorde van ANNOTATIES.
+   * Daarna verdwijnt elke " =".
+   */
+  private void verwijderAnnotaties() {
+    var naar  = 0;
+    var van   = 0;
+    while (van < n) {
+      if (tekens[van] == ' ') {
+        tekens[naar++]  = tekens[van++];
+        continue;
+      }
+
+      var einde     = van;
+      var gevonden  = false;
+      while (einde < n && tekens[einde] != ' ') {
+        gevonden  |= ANNOTATIETEKENS.indexOf(tekens[einde]) >= 0;
+        einde++;
+      }
+      var woordEinde  = einde;
+      if (gevonden) {
+        for (var annotatie : ANNOTATIES) {
+          woordEinde  = verwijderUitWoord(van, woordEinde, annotatie);
+        }
+      }
+      System.arraycopy(tekens, van, tekens, naar, woordEinde - van);
+      naar       += woordEinde - van;
+      van         = einde;
+    }
+    n     = naar;
+
+    naar  = 0;
+    for (var i = 0; i < n; i++) {
+      if (tekens[i] == ' ' && i + 1 < n && tekens[i + 1] == '=') {
+        i++;
+      } else {
+        tekens[naar++]  = tekens[i];
+      }
+    }
+    n     = naar;
+  }
+
+  /**
+   * Verwijdert de $nn notaties samen met het teken ervoor.
+   */
+  private void verwijderDollarNotaties() {
+    var naar  = 0;
+    for (var i = 0; i < n; i++) {
+      if (tekens[i] == '$') {
+        if (naar > 0) {
+          naar--;
+        }
+        while (i + 1 < n && isCijfer(tekens[i + 1])) {
+          i++;
+        }
+      } else {
+        tekens[naar++]  = tekens[i];
+      }
+    }
+    n     = naar;
+  }
+
+  /**
+   * Voert enkel de stap voor de ... uit. Dit is voor de oude
+   * PGN.verwijderGesplitsteZetten.
+   */
+  static String verwijderGesplitsteZetten(String zetten) {
+    var zuiveraar = new Zettenzuiveraar(zetten);
+
+    zuiveraar.verwijderGesplitsteZetten();
+
+    // De spaties rond de zetten blijven altijd staan.
+    return new String(zuiveraar.tekens, 1, zuiveraar.n - 2);
+  }
+
+  /**
+   * Verwijdert bij 3 of meer punten de punten en alles tot de spatie ervoor.
+   */
+  private void verwijderGesplitsteZetten() {
+    var naar  = 0;
+    var i     = 0;
+    while (i < n) {
+      if (tekens[i] != '.') {
+        tekens[naar++]  = tekens[i++];
+        continue;
+      }
+
+      var einde   = i;
+      while (einde < n && tekens[einde] == '.') {
+        einde++;
+      }
+      var begin   = naar;
+      while (begin > 0 && tekens[begin - 1] == '.') {
+        begin--;
+      }
+      if (einde - i + naar - begin < 3) {
+        while (i < einde) {
+          tekens[naar++]  = tekens[i++];
+        }
+        continue;
+      }
+
+      while (begin > 0 && tekens[begin - 1] != ' ') {
+        begin--;
+      }
+      naar        = begin;
+      i           = einde;
+    }
+    n     = naar;
+  }
+
+  /**
+   * Verwijdert commentaar of varianten samen met het teken ervoor. Eerst het
+   * commentaar en dan de varianten want dan verdwijnt bij '(...){...}' de ')'.
+   */
+  private void verwijderGroepen(char open) {
+    var naar  = 0;
+    for (var i = 0; i < n; i++) {
+      if (tekens[i] != open) {
+        tekens[naar++]  = tekens[i];
+        continue;
+      }
+
+      if (naar > 0) {
+        naar--;
+      }
+      var niveau  = 1;
+      while (niveau > 0 && ++i < n) {
+        switch (tekens[i]) {
+          case '{', '(' -> niveau++;
+          case '}', ')' -> niveau--;
+          default       -> { }
+        }
+      }
+    }
+    n     = naar;
+  }
+
+  /**
+   * Verwijdert een losse letter (" D " of " N ") maar laat de eerste spatie
+   * staan.
+   */
+  private void verwijderLetter(char letter) {
+    var naar  = 0;
+    for (var i = 0; i < n; i++) {
+      tekens[naar++]  = tekens[i];
+      if (tekens[i] == ' ' && i + 2 < n
+          && tekens[i + 1] == letter && tekens[i + 2] == ' ') {
+        i        += 2;
+      }
+    }
+    n     = naar;
+  }
+
+  /**
+   * Maakt van een TAB een spatie en verwijdert de spaties voor en na een punt.
+   */
+  private void verwijderSpaties() {
+    var naar    = 0;
+    var vorige  = ' ';
+    for (var i = 0; i < n; i++) {
+      var teken = tekens[i] == '\t' ? ' ' : tekens[i];
+      if (teken != ' '
+          || vorige != '.' && (i + 1 >= n || tekens[i + 1] != '.')) {
+        tekens[naar++]  = teken;
+      }
+      vorige    = teken;
+    }
+    n     = naar;
+  }
+
+  /**
+   * Verwijdert de annotatie uit het woord tussen begin en einde zoals
+   * String.replace: van links naar rechts en zonder overlapping. Geeft het
+   * nieuwe einde van het woord.
+   */
+  private int verwijderUitWoord(int begin, int einde, String annotatie) {
+    var lengte  = annotatie.length();
+    var naar    = begin;
+    var i       = begin;
+    while (i < einde) {
+      if (i + lengte <= einde && isAnnotatie(i, annotatie)) {
+        i              += lengte;
+      } else {
+        tekens[naar++]  = tekens[i++];
+      }
+    }
+
+    return naar;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Deze class bevat de willekeurige getallen voor de Zobrist sleutel van een
+ * stelling. De sleutel is de XOR van een getal voor elk stuk op zijn veld, voor
+ * zwart aan zet, voor de rokademogelijkheden en voor de lijn van het en
+ * passant veld. Een zet verandert de sleutel door enkel de gewijzigde delen te
+ * XOR-en.
+ *
+ * De getallen worden met een vaste seed gemaakt zodat een sleutel tussen
+ * verschillende runs gelijk blijft.
+ *
+ * @author Marco de Booij
+ */
+public final class Zobrist {
+  private static final long     AANZET;
+  private static final long[]   ENPASSANT = new long[8];
+  private static final long[]   ROKADE    = new long[16];
+  private static final long[][] STUK      = new long[13][120];
+
+  static {
+    var random  = new SplittableRandom(0x5EEDCA155AL);
+
+    for (var stuk = 0; stuk < 13; stuk++) {
+      // Een leeg veld (stuk 0) heeft geen invloed op de sleutel.
+      if (stuk != 6) {
+        for (var veld = 21; veld < 99; veld++) {
+          STUK[stuk][veld]  = random.nextLong();
+        }
+      }
+    }
+    AANZET  = random.nextLong();
+    for (var i = 1; i < 16; i++) {
+      ROKADE[i] = random.nextLong();
+    }
+    for (var i = 0; i < 8; i++) {
+      ENPASSANT[i]  = random.nextLong();
+    }
+  }
+
+  private Zobrist() {}
+
+  /**
+   * Geeft de sleutel voor zwart aan zet.
+   *
+   * @return
+   */
+  public static long aanZet() {
+    return AANZET;
+  }
+
+  /**
+   * Berekent de volledige sleutel van een stelling.
+   *
+   * @param bord Het bord in de interne notatie.
+   * @param aanZet CaissaConstants.WIT of CaissaConstants.ZWART.
+   * @param rokade De rokademogelijkheden als bits (1 = K, 2 = Q, 4 = k, 8 = q).
+   * @param enPassant Het en passant veld in de interne notatie of 0.
+   * @return
+   */
+  public static long bereken(int[] bord, char aanZet, int rokade,
+                             int enPassant) {
+    var sleutel = rokade(rokade) ^ enPassant(enPassant);
+
+    for (var i = 2; i < 10; i++) {
+      for (var j = 1; j < 9; j++) {
+        sleutel  ^= stuk(bord[i*10+j], i*10+j);
+      }
+    }
+    if (aanZet != CaissaConstants.WIT) {
+      sleutel  ^= AANZET;
+    }
+
+    return sleutel;
+  }
+
+  public static long enPassant(int veld) {
+    if (veld == 0) {
+      return 0L;
+    }
+
+    return ENPASSANT[veld % 10 - 1];
+  }
+
+  public static long rokade(int rokade) {
+    return ROKADE[rokade];
+  }
+
+  public static long stuk(int stuk, int veld) {
+    return STUK[stuk + 6][veld];
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.CaissaException;
+import eu.debooy.caissa.exceptions.FenException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class BitbordZettengeneratorTest extends TestCase {
+  private static final  String[]  STELLINGEN  = {
+    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+    "4k3/P7/8/8/8/8/8/4K3 w - - 0 1",
+    "r3k2r/8/8/1p6/2P5/8/8/R3K2R b KQkq - 0 1",
+    "r3k2r/8/8/1p6/2P5/8/8/R3K2R b kq - 0 1",
+    "r3k2r/8/8/1p6/2P5/8/8/R3K2R b - - 0 1",
+    "5rkr/8/8/1p6/2P5/8/8/5RKR b FHfh - 0 1",
+    "rkr5/8/8/1p6/2P5/8/8/RKR5 b ACac - 0 1",
+    "k3b3/1n5p/3N1N2/2N1R1N1/1R1R1R2/2N1R1N1/3N1N2/K3R3 w - - 0 1",
+    "1r1r2k1/5p1p/p2p2P1/1p2p3/5nN1/P6P/1P3PP1/1BRb2K1 w - - 0 29",
+    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+    "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2",
+    "8/8/8/8/5K1k/8/8/7R b - - 0 1",
+    "P3k3/8/8/8/8/8/8/4K3 w - - 0 1",
+    "4k3/8/8/8/8/8/8/p3K3 b - - 0 1"};
+
+  private static Set<String> alsNotatie(List<Zet> zetten) {
+    var notatie = new TreeSet<String>();
+
+    zetten.forEach(zet -> notatie.add(zet.getZet()));
+
+    return notatie;
+  }
+
+  private static TreeSet<String> alsTekst(List<Zet> zetten) {
+    var tekst = new TreeSet<String>();
+
+    zetten.forEach(zet -> tekst.add(zet.toString()));
+
+    return tekst;
+  }
+
+  private BitbordZettengenerator getZettengenerator(String stelling)
+      throws FenException {
+    var fen     = new FEN(stelling);
+
+    return new BitbordZettengenerator(fen);
+  }
+
+  private static int ruilwaarde(String stelling, String notatie)
+      throws FenException {
+    var generator = new BitbordZettengenerator(new FEN(stelling));
+    var zetcodes  = generator.getZetcodes();
+
+    for (var i = 0; i < zetcodes.size(); i++) {
+      var zetcode = zetcodes.get(i);
+      if (generator.getZet(zetcode).getKorteNotatie().equals(notatie)) {
+        return generator.getRuilwaarde(zetcode);
+      }
+    }
+
+    fail(notatie);
+
+    return 0;
+  }
+
+  @Test
+  public void testAanvallers() throws FenException {
+    var generator =
+        getZettengenerator("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR"
+                           + " w KQkq d6 0 2");
+
+    assertEquals(1L << Bitborden.externToVeld("e4")
+                 | 1L << Bitborden.externToVeld("d8"),
+                 generator.getAanvallers(CaissaUtils.externToIntern("d5")));
+    assertEquals(0L,
+                 generator.getAanvallers(CaissaUtils.externToIntern("a5")));
+
+    var aanvallers  =
+        generator.getAanvallers(CaissaUtils.externToIntern("d5"));
+    assertEquals(CaissaUtils.externToIntern("e4"),
+                 Bitborden.veldToIntern(
+                     Long.numberOfTrailingZeros(aanvallers)));
+  }
+
+  @Test
+  public void testBeginstand() {
+    var zetten  = new BitbordZettengenerator(new FEN());
+
+    assertEquals(20, zetten.getAantalZetten());
+    assertEquals(20, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testDubbelschaak() throws CaissaException {
+    var zetten  = getZettengenerator("4k3/8/8/Q7/8/5n2/8/3rK3 w - - 0 1");
+
+    assertEquals(3, zetten.getAantalZetten());
+    assertEquals(Set.of("Kxd1", "Ke2", "Kf2"),
+                 alsNotatie(zetten.getZetten()));
+  }
+
+  @Test
+  public void testEnPassantPenning() throws CaissaException {
+    var zetten  = getZettengenerator("8/8/8/K2pP2r/8/8/8/7k w - d6 0 1");
+
+    assertEquals(6, zetten.getAantalZetten());
+    assertFalse(alsNotatie(zetten.getZetten()).contains("exd6"));
+  }
+
+  @Test
+  public void testGelijkAanZettengenerator() throws FenException {
+    for (var stelling : STELLINGEN) {
+      var fen = new FEN(stelling);
+
+      assertEquals(stelling,
+                   alsTekst(new Zettengenerator(fen).getZetten()),
+                   alsTekst(new BitbordZettengenerator(fen).getZetten()));
+    }
+  }
+
+  @Test
+  public void testGepend() throws CaissaException {
+    var zetten  = getZettengenerator("4k3/4r3/8/8/8/8/4B3/4K3 w - - 0 1");
+
+    assertEquals(Set.of("Kd1", "Kf1", "Kd2", "Kf2"),
+                 alsNotatie(zetten.getZetten()));
+  }
+
+  @Test
+  public void testGetZet() throws FenException {
+    for (var stelling : STELLINGEN) {
+      var generator = new BitbordZettengenerator(new FEN(stelling));
+      var codes     = generator.getZetcodes();
+      var zetten    = generator.getZetten();
+      for (var i = 0; i < codes.size(); i++) {
+        var zet = generator.getZet(codes.get(i));
+        assertEquals(stelling, zetten.get(i), zet);
+        assertEquals(stelling, zetten.get(i).getKorteNotatie(),
+                     zet.getKorteNotatie());
+      }
+    }
+  }
+
+  @Test
+  public void testGetZettengenerator() {
+    var fen = new FEN();
+
+    assertTrue(CaissaUtils.getZettengenerator(
+                  fen, CaissaConstants.Generatortype.BITBORD)
+               instanceof BitbordZettengenerator);
+    assertTrue(CaissaUtils.getZettengenerator(
+                  fen, CaissaConstants.Generatortype.MAILBOX)
+               instanceof Zettengenerator);
+  }
+
+  @Test
+  public void testHeeftLegaleZet() throws CaissaException {
+    var zetten  = getZettengenerator(
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+    assertTrue(zetten.heeftLegaleZet());
+    assertFalse(zetten.isMat());
+    assertFalse(zetten.isPat());
+    assertEquals(48, zetten.getAantalZetten());
+    assertTrue(zetten.heeftLegaleZet());
+  }
+
+  @Test
+  public void testMat() throws CaissaException {
+    var zetten  = getZettengenerator("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1");
+
+    assertTrue(zetten.isSchaak());
+    assertFalse(zetten.heeftLegaleZet());
+    assertTrue(zetten.isMat());
+    assertFalse(zetten.isPat());
+    assertEquals(0, zetten.getAantalZetten());
+  }
+
+  @Test
+  public void testPat() throws CaissaException {
+    var zetten  = getZettengenerator("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+
+    assertFalse(zetten.isSchaak());
+    assertFalse(zetten.heeftLegaleZet());
+    assertFalse(zetten.isMat());
+    assertTrue(zetten.isPat());
+  }
+
+  @Test
+  public void testPromotie() throws CaissaException {
+    var zetten  = getZettengenerator("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+
+    assertEquals(9, zetten.getAantalZetten());
+    assertEquals(9, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testRokade1() throws CaissaException {
+    var zetten  =
+            getZettengenerator("r3k2r/8/8/1p6/2P5/8/8/R3K2R b KQkq - 0 1");
+
+    assertEquals(28, zetten.getAantalZetten());
+    assertEquals(28, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testRokade3() throws CaissaException {
+    var zetten  =
+            getZettengenerator("r3k2r/8/8/1p6/2P5/8/8/R3K2R b - - 0 1");
+
+    assertEquals(26, zetten.getAantalZetten());
+    assertEquals(26, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testRokade4() throws CaissaException {
+    var zetten  =
+            getZettengenerator("5rkr/8/8/1p6/2P5/8/8/5RKR b FHfh - 0 1");
+
+    assertEquals(22, zetten.getAantalZetten());
+    assertEquals(22, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testRokade5() throws CaissaException {
+    var zetten  =
+            getZettengenerator("rkr5/8/8/1p6/2P5/8/8/RKR5 b ACac - 0 1");
+
+    assertEquals(21, zetten.getAantalZetten());
+    assertEquals(21, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testRuilwaarde() throws FenException {
+    assertEquals(100,
+                 ruilwaarde("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1",
+                            "Rxe5"));
+    assertEquals(-200,
+                 ruilwaarde("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3"
+                            + " w - - 0 1", "Nxe5"));
+    assertEquals(-900,
+                 ruilwaarde("4k3/8/8/4p3/8/8/8/3QK3 w - - 0 1", "Qd4"));
+    assertEquals(0,
+                 ruilwaarde("4k3/8/8/4p3/8/8/8/3QK3 w - - 0 1", "Qd3"));
+    assertEquals(100,
+                 ruilwaarde("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+                            "exd6 e.p."));
+    assertEquals(800,
+                 ruilwaarde("4k3/P7/8/8/8/8/8/4K3 w - - 0 1", "a8Q+"));
+    assertEquals(-800,
+                 ruilwaarde("3qk3/8/8/8/8/8/3P4/3RK3 b - - 0 1", "Qxd2+"));
+    assertEquals(700,
+                 ruilwaarde("4k3/8/8/8/8/1n6/3q4/3RK3 w - - 0 1", "Rxd2"));
+    // De koning mag niet terugslaan omdat de toren op d8 het veld aanvalt.
+    assertEquals(400,
+                 ruilwaarde("3rk3/8/8/8/8/1n6/3q4/3RK3 w - - 0 1", "Rxd2"));
+  }
+
+  @Test
+  public void testSchaakOpheffen() throws CaissaException {
+    var zetten  = getZettengenerator("4k3/8/8/8/8/8/8/r3K2R w K - 0 1");
+
+    assertEquals(Set.of("Kd2", "Ke2", "Kf2"), alsNotatie(zetten.getZetten()));
+  }
+
+  @Test
+  public void testNotatielevel() throws CaissaException {
+    var zetten  = getZettengenerator(
+            "k3b3/1n5p/3N1N2/2N1R1N1/1R1R1R2/2N1R1N1/3N1N2/K3R3 w - - 0 1");
+
+    assertEquals(93, zetten.getAantalZetten());
+    assertEquals(93, zetten.getZetten().size());
+  }
+
+  @Test
+  public void testPionschaak() throws CaissaException {
+    var zetten  = getZettengenerator(
+            "1r1r2k1/5p1p/p2p2P1/1p2p3/5nN1/P6P/1P3PP1/1BRb2K1 w - - 0 29");
+    var zet     = new Zet(77, 88);
+    zet.setSchaak(true);
+    zet.setSlagzet(true);
+    assertTrue(zetten.getZetten().toString().contains(zet.toString()));
+
+    zet = new Zet(77, 86);
+    zet.setSchaak(true);
+    zet.setSlagzet(true);
+    assertTrue(zetten.getZetten().toString().contains(zet.toString()));
+  }
+}
@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.Locale;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.TreeSet;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
@@ -486,6 +487,17 @@ public class CaissaUtilsTest extends BatchTest {
     }
   }
 
+  @Test
+  public void testIsPat() throws FenException {
+    var pat = new FEN("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+    var mat = new FEN("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1");
+
+    assertTrue(CaissaUtils.isPat(pat));
+    assertFalse(CaissaUtils.isMat(pat));
+    assertFalse(CaissaUtils.isPat(mat));
+    assertTrue(CaissaUtils.isMat(mat));
+  }
+
   @Test
   @SuppressWarnings({"java:S1481", "java:S1854"})
   public void testLaadPgnBestand() {
@@ -497,6 +509,123 @@ public class CaissaUtilsTest extends BatchTest {
     }
   }
 
+  @Test
+  public void testMaakUniek1() throws FenException {
+    var zetten  = new TreeSet<String>();
+
+    new Zettengenerator(new FEN("4k3/8/8/8/8/8/8/R4RK1 w - - 0 1"))
+        .getZetten().forEach(zet -> zetten.add(zet.getZet()));
+
+    assertTrue(zetten.contains("Rab1"));
+    assertTrue(zetten.contains("Rfe1+"));
+    assertTrue(zetten.contains("Ra7"));
+    assertFalse(zetten.contains("Rb1"));
+  }
+
+  @Test
+  public void testMaakUniek2() throws FenException {
+    var zetten  = new TreeSet<String>();
+
+    new BitbordZettengenerator(new FEN("6k1/8/8/Q7/8/8/8/Q3Q2K w - - 0 1"))
+        .getZetten().forEach(zet -> zetten.add(zet.getZet()));
+
+    assertTrue(zetten.contains("Qa1c3"));
+    assertTrue(zetten.contains("Q5c3"));
+    assertTrue(zetten.contains("Qec3"));
+    assertTrue(zetten.contains("Qb2"));
+    assertTrue(zetten.contains("Q1a2+"));
+  }
+
+  @Test
+  public void testVindZet1() throws FenException, PgnException {
+    var fen = new FEN("6k1/8/8/Q7/8/8/8/Q3Q2K w - - 0 1");
+
+    assertEquals("Qa1c3", CaissaUtils.vindZet(fen, "Qa1c3").getPgnNotatie());
+    assertEquals("Q5c3",  CaissaUtils.vindZet(fen, "Q5c3").getPgnNotatie());
+    assertEquals("Qec3",  CaissaUtils.vindZet(fen, "Qec3").getPgnNotatie());
+    assertEquals("Qb2",   CaissaUtils.vindZet(fen, "Qb2").getPgnNotatie());
+    assertEquals("Q1a2+", CaissaUtils.vindZet(fen, "Q1a2+").getPgnNotatie());
+    // Zoals vroeger geldt een '#' als '+'.
+    assertEquals("Qg7+",  CaissaUtils.vindZet(fen, "Qg7#").getPgnNotatie());
+  }
+
+  @Test
+  public void testVindZet2() throws FenException, PgnException {
+    var ep        = new FEN("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+    var promotie  = new FEN("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+    var mat       = new FEN("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+    var rokade    = new FEN("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+
+    assertTrue(CaissaUtils.vindZet(ep, "exd6").isEp());
+    assertEquals('N', CaissaUtils.vindZet(promotie, "b8=N").getPromotieStuk());
+    assertEquals("b8Q+",
+                 CaissaUtils.vindZet(promotie, "b8=Q+").getKorteNotatie());
+    assertTrue(CaissaUtils.vindZet(mat, "Ra8#").isSchaak());
+    assertTrue(CaissaUtils.vindZet(mat, "Ra8+").isSchaak());
+    assertEquals("O-O", CaissaUtils.vindZet(rokade, "O-O").getPgnNotatie());
+    assertTrue(CaissaUtils.vindZet(rokade, "O-O-O").isRokade());
+  }
+
+  @Test
+  public void testVindZet3() throws FenException {
+    var fen     = new FEN("6k1/8/8/Q7/8/8/8/Q3Q2K w - - 0 1");
+    var gepend  = new FEN("4k3/4r3/8/8/8/8/4N3/4K3 w - - 0 1");
+    var mat     = new FEN("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+    var pionnen = new FEN("4k3/8/8/4p3/3P1P2/8/8/4K3 w - - 0 1");
+    var rokade  = new FEN("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+    var start   = new FEN();
+
+    try {
+      CaissaUtils.vindZet(fen, "Qc3");
+      fail("Er had een PgnException moeten wezen.");
+    } catch (PgnException e) {
+      assertTrue(e.getMessage().startsWith("PGN-0023"));
+    }
+
+    for (var zet : new String[] {"Qab2", "Qa5c3", "Qb2+", "Q1a2", "Qa1c3+",
+                                 "Qb2#", "Qb2!"}) {
+      try {
+        CaissaUtils.vindZet(fen, zet);
+        fail("Er had een PgnException moeten wezen voor " + zet);
+      } catch (PgnException e) {
+        assertTrue(e.getMessage().startsWith("PGN-0021"));
+      }
+    }
+
+    var fouten  = new String[][] {{"Ra8"}, {"e5", "fe5"},
+                                  {"0-0", "O-O+", "O-O-O+"}};
+    var fens    = new FEN[] {mat, pionnen, rokade};
+    for (var i = 0; i < fens.length; i++) {
+      for (var zet : fouten[i]) {
+        try {
+          CaissaUtils.vindZet(fens[i], zet);
+          fail("Er had een PgnException moeten wezen voor " + zet);
+        } catch (PgnException e) {
+          assertTrue(e.getMessage().startsWith("PGN-0021"));
+        }
+      }
+    }
+
+    for (var zet : new String[] {"Nc3", "Ke2", "e4", "O-O"}) {
+      try {
+        CaissaUtils.vindZet(gepend, zet);
+        fail("Er had een PgnException moeten wezen voor " + zet);
+      } catch (PgnException e) {
+        assertTrue(e.getMessage().startsWith("PGN-0021"));
+      }
+    }
+
+    for (var zet : new String[] {"Nxf3", "Nf3#", "e5", "e8=Q", "Zf3", "i4",
+                                 "e"}) {
+      try {
+        CaissaUtils.vindZet(start, zet);
+        fail("Er had een PgnException moeten wezen voor " + zet);
+      } catch (PgnException e) {
+        assertTrue(e.getMessage().startsWith("PGN-0021"));
+      }
+    }
+  }
+
   @Test
   public void testZoekStuk() {
     assertEquals(-7, CaissaUtils.zoekStuk('x'));
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class EpdlezerTest extends TestCase {
+  private static final  ClassLoader CLASSLOADER =
+      EpdlezerTest.class.getClassLoader();
+
+  private static final  String  EPD =
+      "1k1r4/pp1b1R2/3q2pp/4p3/2B5/4Q3/PPP2B2/2K5 b - - bm Qd1+; id \"BK.01\";"
+      + "\r\n"
+      + "\n"
+      + "3r1k2/4npp1/1ppr3p/p6P/P2PPPP1/1NR5/5K2/2R5 w - - bm d5; "
+      + "c0 \"Zet; met ;\"; id \"BK.02\";\n"
+      + "8/8/8/8/8/8/8/8 w - - id \"leeg\";\n"
+      + "4k3/8/8/8/8/8/8/4K2P w - - id \"pion\";\n"
+      + "4k3/8/8/8/8/8/8/4K3 x - - id \"aanzet\";\n"
+      + "4k3/8/8/8/8/8/8/4K3 w - - c0 \"open;\n"
+      + "4k3/8/8/8/8/8/8/4K3 w - - hmvc 12; fmvn 40;\n"
+      + "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  private static Epdlezer lezer(String invoer) {
+    return new Epdlezer(
+        new ByteArrayInputStream(invoer.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testFouten() throws IOException {
+    try (var epd = lezer(EPD)) {
+      while (epd.volgende()) {
+        assertNotNull(epd.getFen().getFen());
+      }
+
+      assertEquals(4, epd.getAantal());
+      assertEquals(9, epd.getRegelnummer());
+
+      var fouten  = epd.getFouten();
+      assertEquals(4, fouten.size());
+      assertTrue(fouten.get(4).startsWith("EPD-0001"));
+      assertTrue(fouten.get(5).startsWith("EPD-0003"));
+      assertTrue(fouten.get(6).startsWith("FEN-0012"));
+      assertTrue(fouten.get(7).startsWith("EPD-0002"));
+    }
+  }
+
+  @Test
+  public void testLangeRegel() throws IOException {
+    var commentaar  = "x".repeat(200000);
+
+    try (var epd = lezer("4k3/8/8/8/8/8/8/4K3 w - - c0 \"" + commentaar
+                         + "\";\n8/8/8/8/8/8/8/K1k5 b - -")) {
+      assertTrue(epd.volgende());
+      assertEquals(commentaar, epd.getOperatie(Epdlezer.OPC_C0));
+      assertTrue(epd.volgende());
+      assertEquals("8/8/8/8/8/8/8/K1k5 b - - 0 1", epd.getFen().getFen());
+      assertFalse(epd.volgende());
+    }
+  }
+
+  @Test
+  public void testOperaties() throws IOException {
+    try (var epd = lezer(EPD)) {
+      assertTrue(epd.volgende());
+      assertEquals(1, epd.getRegelnummer());
+      assertEquals("1k1r4/pp1b1R2/3q2pp/4p3/2B5/4Q3/PPP2B2/2K5 b - - 0 1",
+                   epd.getFen().getFen());
+      assertEquals("BK.01", epd.getOperatie(Epdlezer.OPC_ID));
+      assertEquals("Qd1+", epd.getBesteZetten()[0]);
+      assertNull(epd.getOperatie(Epdlezer.OPC_C0));
+
+      assertTrue(epd.volgende());
+      assertEquals(3, epd.getRegelnummer());
+      assertEquals("Zet; met ;", epd.getOperatie(Epdlezer.OPC_C0));
+      assertEquals("[bm, c0, id]",
+                   epd.getOperaties().keySet().toString());
+
+      assertTrue(epd.volgende());
+      assertEquals(8, epd.getRegelnummer());
+      assertEquals(12, epd.getFen().getHalvezetten().intValue());
+      assertEquals(40, epd.getFen().getZetnummer().intValue());
+
+      assertTrue(epd.volgende());
+      assertEquals(new FEN().getFen(), epd.getFen().getFen());
+      assertTrue(epd.getOperaties().isEmpty());
+      assertFalse(epd.volgende());
+    }
+  }
+
+  @Test
+  public void testPad() throws IOException {
+    var bestand = Files.createTempFile("epdlezer", ".epd");
+    try {
+      Files.write(bestand, EPD.getBytes(StandardCharsets.UTF_8));
+      try (var epd = new Epdlezer(bestand)) {
+        while (epd.volgende()) {
+          assertNotNull(epd.getFen());
+        }
+        assertEquals(4, epd.getAantal());
+      }
+    } finally {
+      Files.delete(bestand);
+    }
+  }
+
+  @Test
+  public void testPerftSuite() throws IOException {
+    try (var epd =
+            new Epdlezer(CLASSLOADER.getResourceAsStream(
+                TestConstants.BST_PERFT_EPD))) {
+      assertTrue(epd.volgende());
+      assertEquals("20", epd.getOperatie("D1"));
+      assertEquals("197281", epd.getOperatie("D4"));
+      while (epd.volgende()) {
+        assertNotNull(epd.getOperaties());
+      }
+
+      assertTrue(epd.getFouten().isEmpty());
+      assertEquals(epd.getRegelnummer(), epd.getAantal());
+    }
+  }
+}
@@ -18,9 +18,21 @@ package eu.debooy.caissa;
 import eu.debooy.caissa.exceptions.FenException;
 import eu.debooy.caissa.exceptions.ZetException;
 import eu.debooy.doosutils.test.BatchTest;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.Set;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
 import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.assertNotEquals;
@@ -69,7 +81,7 @@ public class FENTest extends BatchTest {
   public static final String  FEN_KORT    =
       "rnbq1bnr/ppppkppp/8/4p3/3PP3/8/PPP1KPPP/RNBQ1BNR b - d3";
   public static final String  FEN360      =
-      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w AHah - 0 1";
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w HAha - 0 1";
   public static final String  FENX      =
       "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQbg - 0 1";
 
@@ -82,6 +94,95 @@ public class FENTest extends BatchTest {
                                                 Locale.getDefault());
   }
 
+  private static int rokade(FEN fen, int soort) {
+    var zetten  = new BitbordZettengenerator(fen).getZetcodes();
+    for (var i = 0; i < zetten.size(); i++) {
+      if ((zetten.get(i) & soort) != 0) {
+        return zetten.get(i);
+      }
+    }
+    fail("Geen rokade.");
+
+    return 0;
+  }
+
+  @Test
+  public void testBinair() throws FenException {
+    String[]  stellingen  =
+        {FEN_1E2E4, FEN_1E7E5, FEN_2KE1E2, FEN_3D2D4,
+         "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+         "bnrbkrqn/pppppppp/8/8/8/8/PPPPPPPP/BNRBKRQN w KQkq - 0 1",
+         "4k3/8/8/8/8/8/8/4K3 b - - 99 2345"};
+
+    for (var stelling : stellingen) {
+      var fen     = new FEN(stelling);
+      var zetten  = new BitbordZettengenerator(fen).getZetcodes();
+      for (var i = 0; i < zetten.size(); i++) {
+        fen.doeZet(zetten.get(i));
+        var bytes = fen.toBytes();
+        var kopie = FEN.fromBytes(bytes);
+        assertEquals(FEN.BINAIRE_LENGTE, bytes.length);
+        assertEquals(fen, kopie);
+        assertEquals(fen.getFen(), kopie.getFen());
+        fen.neemTerug();
+      }
+      assertEquals(stelling, FEN.fromBytes(fen.toBytes()).getFen());
+    }
+
+    var bytes = new byte[FEN.BINAIRE_LENGTE + 2];
+    new FEN(FEN_1E2E4).toBytes(bytes, 2);
+    assertEquals(FEN_1E2E4, FEN.fromBytes(bytes, 2).getFen());
+  }
+
+  @Test
+  public void testBinairFout() throws FenException {
+    var bytes = new FEN().toBytes();
+
+    bytes[8]  = 0x07;
+    try {
+      FEN.fromBytes(bytes);
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      assertEquals(resourceBundle.getString(FEN.ERR_BINAIR), e.getMessage());
+    }
+
+    try {
+      FEN.fromBytes(new byte[FEN.BINAIRE_LENGTE - 1]);
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      assertEquals(resourceBundle.getString(FEN.ERR_BINAIR), e.getMessage());
+    }
+
+    try {
+      new FEN("4k3/8/8/8/8/8/8/4K3 w - - 256 1").toBytes();
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      assertEquals(resourceBundle.getString(FEN.ERR_BINAIR), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testChess960() throws FenException {
+    Set<String> stellingen  = new HashSet<>();
+
+    for (var i = 0; i < 960; i++) {
+      var fen = FEN.chess960(i);
+      assertEquals("KQkq", fen.getRokade());
+      stellingen.add(fen.getFen());
+    }
+
+    assertEquals(960, stellingen.size());
+    assertEquals(new FEN().getFen(), FEN.chess960(518).getFen());
+    assertEquals("bbqnnrkr/pppppppp/8/8/8/8/PPPPPPPP/BBQNNRKR w KQkq - 0 1",
+                 FEN.chess960(0).getFen());
+    try {
+      FEN.chess960(960);
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      // Verwacht.
+    }
+  }
+
   @Test
   public void testDoeD2d4() throws FenException, ZetException {
     var fen = new FEN(FEN_2KE8E7);
@@ -183,27 +284,42 @@ public class FENTest extends BatchTest {
     assertEquals(fen, instance);
   }
 
-//  @Test
-//  public void testFen360() {
-//    try {
-//      var fen = new FEN(FEN360);
-//
-//      assertEquals("BGbg", fen.getRokade());
-//    } catch (FenException e) {
-//      fail(e.getLocalizedMessage());
-//    }
-//  }
-//
-//  @Test
-//  public void testFenX() {
-//    try {
-//      var fen = new FEN(FENX);
-//
-//      assertEquals("AHah", fen.getRokade());
-//    } catch (FenException e) {
-//      fail(e.getLocalizedMessage());
-//    }
-//  }
+  @Test
+  public void testFen360() throws FenException {
+    var fen = new FEN(FEN360);
+
+    assertEquals("HAha", fen.getRokade());
+    assertEquals(FEN360, fen.getFen());
+  }
+
+  @Test
+  public void testFenX() {
+    try {
+      new FEN(FENX);
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      assertEquals(
+          MessageFormat.format(resourceBundle.getString(FEN.ERR_ROKADE),
+                               "KQbg"),
+          e.getLocalizedMessage());
+    }
+  }
+
+  @Test
+  public void testFenBewaard() throws FenException, ZetException {
+    var fen     = new FEN();
+    var begin   = fen.getFen();
+
+    assertSame(begin, fen.getFen());
+    fen.doeZet(new Zet(' ', 35, 55));
+    assertEquals(FEN_1E2E4, fen.getFen());
+    fen.neemTerug();
+    assertEquals(begin, fen.getFen());
+    fen.setHalvezetten(5);
+    assertEquals(begin.replace(" 0 1", " 5 1"), fen.getFen());
+    fen.setPositie("4k3/8/8/8/8/8/8/4K3");
+    assertEquals("4k3/8/8/8/8/8/8/4K3 w KQkq - 5 1", fen.getFen());
+  }
 
   @Test
   public void testGeefZet1() throws ZetException {
@@ -275,6 +391,31 @@ public class FENTest extends BatchTest {
     }
   }
 
+  @Test
+  public void testGeefZetAlleZetten() throws FenException {
+    String[]  stellingen  =
+        {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+         "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+         "r3k2r/p1ppqpb1/bn2pnp1/3PN3/Pp2P3/2N2Q1p/1PPBBPPP/R3K2R b KQkq a3"
+         + " 0 1",
+         "4k3/1P6/8/8/8/8/6p1/4K2R b K - 0 1",
+         "2n1k3/1P6/8/8/8/8/6p1/4K2R w K - 0 1"};
+
+    for (var stelling : stellingen) {
+      var voor    = new FEN(stelling);
+      var zetten  = new BitbordZettengenerator(voor).getZetten();
+      for (var zet : zetten) {
+        var na  = new FEN(stelling);
+        na.doeZet(zet);
+
+        var gevonden  = na.geefZet(voor);
+        assertEquals(stelling + " " + zet.getLangeNotatie(), zet, gevonden);
+        assertEquals(zet.getKorteNotatie(), gevonden.getKorteNotatie());
+        assertEquals(stelling, voor.getFen());
+      }
+    }
+  }
+
   @Test
   public void testKorteFen() throws FenException {
     var fen = new FEN(FEN_3D2D4);
@@ -282,6 +423,209 @@ public class FENTest extends BatchTest {
     assertEquals(FEN_KORT, fen.getKorteFen());
   }
 
+  @Test
+  public void testLeesBytes() throws FenException {
+    var regel = ("[" + FEN_1E7E5 + "]").getBytes(StandardCharsets.US_ASCII);
+    var fen   = new FEN(regel, 1, regel.length - 2);
+
+    assertEquals(FEN_1E7E5, fen.getFen());
+    assertEquals(new FEN(FEN_1E7E5), fen);
+  }
+
+  @Test
+  public void testLeesChars() throws FenException {
+    var regel = ("  " + FEN_3D2D4 + "\r\n").toCharArray();
+    var fen   = new FEN(regel, 0, regel.length);
+
+    assertEquals(FEN_3D2D4, fen.getFen());
+    assertEquals(FEN_2KE1E2,
+                 new FEN(new StringBuilder(FEN_2KE1E2)).getFen());
+  }
+
+  @Test
+  public void testLeesFout() {
+    String[]  fouten  = {"",
+                         "4k3/8/8/8/8/8/4K3 w - - 0 1",
+                         "4k3/9/8/8/8/8/8/4K3 w - - 0 1",
+                         "4k3/8/8/3x4/8/8/8/4K3 w - - 0 1",
+                         "4k3/8/8/8/8/8/8/4K2 w - - 0 1",
+                         "4k3/8/8/8/8/8/8/4K3 w",
+                         "4k3/8/8/8/8/8/8/4K3 w - - x 1",
+                         "4k3/8/8/8/8/8/8/4K3 w - - 0 1 2"};
+
+    for (var fout : fouten) {
+      try {
+        new FEN(fout);
+        fail("Er had een FenException moeten wezen voor " + fout);
+      } catch (FenException e) {
+        assertTrue(e.getMessage().startsWith("FEN-0010"));
+      }
+    }
+
+    try {
+      new FEN("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1");
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      assertEquals(resourceBundle.getString(FEN.ERR_AANZET), e.getMessage());
+    }
+
+    try {
+      new FEN("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KZ - 0 1");
+      fail("Er had een FenException moeten wezen.");
+    } catch (FenException e) {
+      assertEquals(MessageFormat.format(
+                      resourceBundle.getString(FEN.ERR_ROKADE), "KZ"),
+                   e.getMessage());
+    }
+  }
+
+  @Test
+  public void testLeesZonderTellers() throws FenException {
+    var fen = new FEN(FEN_KORT);
+
+    assertEquals(0, fen.getHalvezetten().intValue());
+    assertEquals(1, fen.getZetnummer().intValue());
+    assertEquals(FEN_KORT, fen.getKorteFen());
+  }
+
+  @Test
+  public void testNeemTerugAlleZetten() throws FenException {
+    var fen     = new FEN(
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+    var origineel = fen.getFen();
+
+    for (var zet : new Zettengenerator(fen).getZetten()) {
+      fen.doeZet(zet);
+      var tussenstand = fen.getFen();
+      for (var antwoord : new Zettengenerator(fen).getZetten()) {
+        fen.doeZet(antwoord);
+        fen.neemTerug();
+        assertEquals(tussenstand, fen.getFen());
+      }
+      fen.neemTerug();
+      assertEquals(origineel, fen.getFen());
+    }
+  }
+
+  @Test
+  public void testNeemTerugEnPassant() throws FenException, ZetException {
+    var stelling  =
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+    var fen       = new FEN(stelling);
+
+    fen.doeZet(new Zet(' ', 65, 76));
+    assertEquals("rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3",
+                 fen.getFen());
+    fen.neemTerug();
+    assertEquals(stelling, fen.getFen());
+    assertEquals(76, fen.getEnPassantVeld());
+  }
+
+  @Test
+  public void testNeemTerugGeenZet() {
+    var fen = new FEN();
+
+    try {
+      fen.neemTerug();
+      fail("Er had een FenException moeten zijn.");
+    } catch (FenException e) {
+      assertEquals(resourceBundle.getString(FEN.ERR_TERUGZET),
+                   e.getMessage());
+    }
+  }
+
+  @Test
+  public void testNeemTerugPromotie() throws FenException, ZetException {
+    var stelling  = "r3k3/1P6/8/8/8/8/8/4K3 w q - 5 40";
+    var fen       = new FEN(stelling);
+
+    fen.doeZet(new Zet(82, 91, 'Q'));
+    assertEquals("Q3k3/8/8/8/8/8/8/4K3 b - - 0 40", fen.getFen());
+    fen.neemTerug();
+    assertEquals(stelling, fen.getFen());
+  }
+
+  @Test
+  public void testNeemTerugRokade() throws FenException, ZetException {
+    var stelling  = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 3 12";
+    var fen       = new FEN(stelling);
+
+    fen.doeZet(new Zet('K', 25, 27));
+    assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 4 12", fen.getFen());
+    fen.doeZet(new Zet('K', 95, 93));
+    assertEquals("2kr3r/8/8/8/8/8/8/R4RK1 w - - 5 13", fen.getFen());
+    fen.neemTerug();
+    assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 4 12", fen.getFen());
+    fen.neemTerug();
+    assertEquals(stelling, fen.getFen());
+  }
+
+  @Test
+  public void testNeemTerugRokade960() throws FenException {
+    var stelling  = "1r4kr/pppppppp/8/8/8/8/PPPPPPPP/1R4KR w HBhb - 0 1";
+    var fen       = new FEN(stelling);
+
+    var korte = rokade(fen, Zetcode.KORTE_ROKADE);
+    assertEquals("O-O", new BitbordZettengenerator(fen).getZet(korte)
+                                                       .getKorteNotatie());
+    fen.doeZet(korte);
+    assertEquals("1r4kr/pppppppp/8/8/8/8/PPPPPPPP/1R3RK1 b hb - 1 1",
+                 fen.getFen());
+    var lange = rokade(fen, Zetcode.LANGE_ROKADE);
+    assertEquals("O-O-O", new BitbordZettengenerator(fen).getZet(lange)
+                                                         .getKorteNotatie());
+    fen.doeZet(lange);
+    assertEquals("2kr3r/pppppppp/8/8/8/8/PPPPPPPP/1R3RK1 w - - 2 2",
+                 fen.getFen());
+    fen.neemTerug();
+    fen.neemTerug();
+    assertEquals(stelling, fen.getFen());
+    assertEquals(new FEN(stelling).getZobrist(), fen.getZobrist());
+  }
+
+  @Test
+  public void testGeefZetRokade960() throws FenException {
+    var voor  =
+        new FEN("1r4kr/pppppppp/8/8/8/8/PPPPPPPP/1R4KR w HBhb - 0 1");
+    var na    =
+        new FEN("1r4kr/pppppppp/8/8/8/8/PPPPPPPP/1R3RK1 b hb - 1 1");
+
+    var zet   = voor.geefZet(na);
+    assertTrue(zet.isRokade());
+    assertEquals("O-O", zet.getKorteNotatie());
+  }
+
+  @Test
+  public void testRokade960Torens() throws FenException {
+    var fen = new FEN("1r4kr/pppppppp/8/8/8/8/PPPPPPPP/1R4KR w HBhb - 0 1");
+
+    fen.doeZet(Zetcode.maak(22, 23, CaissaConstants.TOREN, 0, 0, 0));
+    assertEquals("Hhb", fen.getRokade());
+    fen.doeZet(Zetcode.maak(98, 97, CaissaConstants.TOREN, 0, 0, 0));
+    assertEquals("Hb", fen.getRokade());
+    fen.doeZet(Zetcode.maak(27, 37, CaissaConstants.KONING, 0, 0, 0));
+    assertEquals("b", fen.getRokade());
+  }
+
+  @Test
+  public void testRokadeShredder() throws FenException, IOException {
+    try (var invoer =
+            new BufferedReader(
+                new InputStreamReader(
+                    FENTest.class.getClassLoader()
+                           .getResourceAsStream(
+                               TestConstants.BST_PERFT960_EPD),
+                    StandardCharsets.UTF_8))) {
+      String  regel;
+      while ((regel = invoer.readLine()) != null) {
+        if (!regel.isBlank()) {
+          var stelling  = regel.split(";")[0].trim();
+          assertEquals(stelling, new FEN(stelling).getFen());
+        }
+      }
+    }
+  }
+
   @Test
   public void testPrintBord() throws ZetException {
     var fen = new FEN();
@@ -302,6 +646,38 @@ public class FENTest extends BatchTest {
     assertTrue(fen.getZwartLangeRokade());
   }
 
+  @Test
+  public void testSerialisatie()
+      throws ClassNotFoundException, FenException, IOException, ZetException {
+    var fen     = new FEN();
+    var gezet   = new ByteArrayOutputStream();
+
+    fen.doeZet(new Zet(35, 55));
+    fen.doeZet(new Zet(85, 65));
+    try (var uit = new ObjectOutputStream(gezet)) {
+      uit.writeObject(fen);
+    }
+
+    FEN kopie;
+    try (var in = new ObjectInputStream(
+                      new ByteArrayInputStream(gezet.toByteArray()))) {
+      kopie = (FEN) in.readObject();
+    }
+    assertEquals(fen.getFen(), kopie.getFen());
+    assertEquals(fen.getZobrist(), kopie.getZobrist());
+    try {
+      // De terugzetten worden niet mee bewaard.
+      kopie.neemTerug();
+      fail("Er had een FenException moeten zijn.");
+    } catch (FenException e) {
+      assertEquals(resourceBundle.getString(FEN.ERR_TERUGZET),
+                   e.getMessage());
+    }
+    kopie.doeZet(new Zet(22, 43));
+    kopie.neemTerug();
+    assertEquals(fen.getFen(), kopie.getFen());
+  }
+
   @Test
   public void testSetFEN() throws FenException {
     var fen = new FEN();
@@ -314,4 +690,51 @@ public class FENTest extends BatchTest {
                  fen.getKortePositie());
     assertEquals(Integer.valueOf(1), fen.getZetnummer());
   }
+
+  @Test
+  public void testZobrist() throws FenException {
+    var fen       = new FEN(
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+    var sleutel   = fen.getZobrist();
+
+    for (var zet : new Zettengenerator(fen).getZetten()) {
+      fen.doeZet(zet);
+      assertEquals(new FEN(fen.getFen()).getZobrist(), fen.getZobrist());
+      for (var antwoord : new Zettengenerator(fen).getZetten()) {
+        fen.doeZet(antwoord);
+        assertEquals(new FEN(fen.getFen()).getZobrist(), fen.getZobrist());
+        fen.neemTerug();
+      }
+      fen.neemTerug();
+      assertEquals(sleutel, fen.getZobrist());
+    }
+  }
+
+  @Test
+  public void testZobristAanZet() throws FenException {
+    var wit   = new FEN("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+    var zwart = new FEN("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+
+    assertNotEquals(wit.getZobrist(), zwart.getZobrist());
+    assertNotEquals(wit, zwart);
+  }
+
+  @Test
+  public void testZobristZetverwisseling() throws ZetException {
+    var fen1  = new FEN();
+    var fen2  = new FEN();
+
+    fen1.doeZet(new Zet('N', 27, 46));
+    fen1.doeZet(new Zet('N', 97, 76));
+    fen1.doeZet(new Zet('N', 22, 43));
+    fen1.doeZet(new Zet('N', 92, 73));
+    fen2.doeZet(new Zet('N', 22, 43));
+    fen2.doeZet(new Zet('N', 92, 73));
+    fen2.doeZet(new Zet('N', 27, 46));
+    fen2.doeZet(new Zet('N', 97, 76));
+
+    assertEquals(fen1.getZobrist(), fen2.getZobrist());
+    assertEquals(fen1.hashCode(), fen2.hashCode());
+    assertEquals(fen1, fen2);
+  }
 }
@@ -341,6 +341,18 @@ public class PGNTest extends BatchTest {
     assertFalse(pgn.isValid());
   }
 
+  @Test
+  @SuppressWarnings("removal")
+  public void testVerwijderGesplitsteZetten() {
+    var partij  = new PGN();
+
+    partij.setZetten("1. e4 e5 2. Nf3 (2. f4) 2... Nc6");
+    var zuivereZetten = partij.getZuivereZetten();
+    partij.verwijderGesplitsteZetten();
+    assertEquals("1.e4 e5 2.Nf3 Nc6", zuivereZetten);
+    assertEquals(zuivereZetten, partij.getZuivereZetten());
+  }
+
   @Test
   public void testZetten2() {
     try {
@@ -407,4 +419,17 @@ public class PGNTest extends BatchTest {
       fail("Er had geen PgnException mogen wezen.");
     }
   }
+
+  @Test
+  public void testZuivereZetten3() {
+    var partij  = new PGN();
+
+    partij.setZetten("1. e4 e5 2. Nf3 $1 Nc6 {c} 3. Bb5 (3. Bc4 {x} Bc5)"
+                     + " 3... a6 4. Ba4 D Nf6 N 5. O-O!? Be7 +=");
+    assertEquals("1.e4 e5 2.Nf3 Nc6 3.Bb5 a6 4.Ba4 Nf6 5.O-O Be7",
+                 partij.getZuivereZetten());
+
+    partij.setZetten("1...\te5 2. Nf3");
+    assertEquals("e5 2.Nf3", partij.getZuivereZetten());
+  }
 }
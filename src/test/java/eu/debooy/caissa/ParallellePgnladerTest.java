@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.exception.BestandException;
+import eu.debooy.doosutils.test.BatchTest;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class ParallellePgnladerTest extends BatchTest {
+  protected static final  ClassLoader CLASSLOADER =
+      ParallellePgnladerTest.class.getClassLoader();
+
+  private static final  String  BST_FOUT_PGN      = "fout.pgn";
+  private static final  String  BST_ZONDER_PGN    = "zonder.pgn";
+  private static final  int[]   GROOTTES          =
+      {1, 500, ParallellePgnlader.BLOKGROOTTE};
+  private static final  String  TEMP              = getTemp() + File.separator;
+
+  @AfterClass
+  public static void afterClass() {
+    verwijderBestanden(TEMP,
+                       new String[] {BST_FOUT_PGN, BST_ZONDER_PGN,
+                                     TestConstants.BST_COMMENTAAR_PGN,
+                                     TestConstants.BST_DEFAULT_PGN,
+                                     TestConstants.BST_PARTIJ_PGN});
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws BestandException {
+    try {
+      kopieerBestand(CLASSLOADER, TestConstants.BST_COMMENTAAR_PGN,
+                     TEMP + TestConstants.BST_COMMENTAAR_PGN);
+      kopieerBestand(CLASSLOADER, TestConstants.BST_DEFAULT_PGN,
+                     TEMP + TestConstants.BST_DEFAULT_PGN);
+      kopieerBestand(CLASSLOADER, TestConstants.BST_PARTIJ_PGN,
+                     TEMP + TestConstants.BST_PARTIJ_PGN);
+      var partij  = Files.readString(Path.of(TEMP
+                                             + TestConstants.BST_PARTIJ_PGN),
+                                     StandardCharsets.UTF_8);
+      var tags    = String.join("\n",
+                                "[Event \"-\"]", "[Site \"-\"]",
+                                "[Date \"????.??.??\"]", "[Round \"-\"]",
+                                "[White \"Speler, Carol\"]",
+                                "[Black \"Speler, Dave\"]",
+                                "[Result \"1-0\"]", "", "1.e4 e5");
+      Files.writeString(Path.of(TEMP + BST_FOUT_PGN),
+                        partij + "\n\n" + tags + "\n[Fout \"-\"]\n\n"
+                            + partij,
+                        StandardCharsets.UTF_8);
+      Files.writeString(Path.of(TEMP + BST_ZONDER_PGN),
+                        partij + "\n\n" + tags + "\n\n" + partij + "\n\n"
+                            + tags + "\n",
+                        StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private static List<String> alsTekst(Collection<PGN> partijen) {
+    List<String>  tekst = new ArrayList<>();
+
+    partijen.forEach(partij -> tekst.add(partij.toString()));
+
+    return tekst;
+  }
+
+  @Test
+  public void testFout() throws PgnException {
+    for (var blokgrootte : GROOTTES) {
+      var lader     = new ParallellePgnlader(ForkJoinPool.commonPool(),
+                                             blokgrootte);
+      var partijen  = lader.laad(TEMP + BST_FOUT_PGN, "UTF-8", true);
+
+      // De [Fout regel blijft over als een partij zonder uitslag.
+      assertEquals(2, partijen.size());
+      assertEquals(2, lader.getFouten().size());
+      assertTrue(lader.getFouten().containsKey(16));
+      assertTrue(lader.getFouten().get(16).contains("25"));
+      assertTrue(lader.getFouten().containsKey(25));
+    }
+  }
+
+  @Test
+  public void testGeenUitslag() throws PgnException {
+    for (var blokgrootte : GROOTTES) {
+      var lader     = new ParallellePgnlader(ForkJoinPool.commonPool(),
+                                             blokgrootte);
+      var partijen  = lader.laad(TEMP + BST_ZONDER_PGN, "UTF-8", true);
+
+      assertEquals(2, partijen.size());
+      assertEquals(2, lader.getFouten().size());
+      assertTrue(lader.getFouten().containsKey(16));
+      assertTrue(lader.getFouten().get(16).contains("26"));
+      assertTrue(lader.getFouten().containsKey(41));
+      assertTrue(lader.getFouten().get(41).contains("50"));
+    }
+  }
+
+  @Test
+  public void testGelijkAanLaadPgnBestand() throws PgnException {
+    var bestanden = new String[] {TestConstants.BST_COMMENTAAR_PGN,
+                                  TestConstants.BST_DEFAULT_PGN,
+                                  TestConstants.BST_PARTIJ_PGN};
+    for (var bestand : bestanden) {
+      var verwacht  =
+          alsTekst(CaissaUtils.laadPgnBestand(TEMP + bestand, "UTF-8"));
+      for (var blokgrootte : GROOTTES) {
+        var lader   = new ParallellePgnlader(ForkJoinPool.commonPool(),
+                                             blokgrootte);
+
+        assertEquals(bestand, verwacht,
+                     alsTekst(lader.laad(TEMP + bestand, "UTF-8", true)));
+        assertTrue(lader.getFouten().isEmpty());
+      }
+    }
+  }
+
+  @Test
+  public void testZonderVolgorde() throws PgnException {
+    var verwacht  =
+        alsTekst(CaissaUtils.laadPgnBestand(
+                     TEMP + TestConstants.BST_DEFAULT_PGN, "UTF-8"));
+    var lader     = new ParallellePgnlader(ForkJoinPool.commonPool(), 1);
+    var partijen  =
+        alsTekst(lader.laad(TEMP + TestConstants.BST_DEFAULT_PGN, "UTF-8",
+                            false));
+
+    Collections.sort(verwacht);
+    Collections.sort(partijen);
+    assertTrue(lader.getBlokken() > 1);
+    assertEquals(verwacht, partijen);
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * De stellingen en aantallen staan in perft.epd en voor Chess960 in
+ * perft960.epd. Om de test snel te houden worden enkel de dieptes met
+ * hoogstens perft.knopen (standaard 100000) knopen gecontroleerd. De
+ * overgeslagen dieptes worden gelogd. De moeilijke gevallen staan daarom ook
+ * met een grotere diepte in testDiep.
+ *
+ * @author Marco de Booij
+ */
+public class PerftTest extends TestCase {
+  private static final  ClassLoader CLASSLOADER =
+      PerftTest.class.getClassLoader();
+  private static final  long        MAX_KNOPEN  =
+      Long.getLong("perft.knopen", 100000L);
+
+  private static final  String  BEGINSTELLING =
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+  private static final  String  KIWIPETE      =
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+  private static List<String> leesSuite() throws IOException {
+    return leesSuite(TestConstants.BST_PERFT_EPD);
+  }
+
+  private static List<String> leesSuite(String bestand) throws IOException {
+    List<String>  regels  = new ArrayList<>();
+
+    try (var invoer =
+            new BufferedReader(
+                new InputStreamReader(
+                    CLASSLOADER.getResourceAsStream(bestand),
+                    StandardCharsets.UTF_8))) {
+      String  regel;
+      while ((regel = invoer.readLine()) != null) {
+        if (!regel.isBlank()) {
+          regels.add(regel);
+        }
+      }
+    }
+
+    return regels;
+  }
+
+  private void controleer(CaissaConstants.Generatortype type)
+      throws FenException, IOException {
+    controleer(type, TestConstants.BST_PERFT_EPD);
+  }
+
+  private void controleer(CaissaConstants.Generatortype type, String bestand)
+      throws FenException, IOException {
+    var overgeslagen  = 0;
+    var perft         = new Perft(type);
+
+    for (var regel : leesSuite(bestand)) {
+      var velden  = regel.split(";");
+      var fen     = new FEN(velden[0].trim());
+      for (var i = 1; i < velden.length; i++) {
+        var telling = velden[i].trim().split(" ");
+        var diepte  = Integer.parseInt(telling[0].substring(1));
+        var aantal  = Long.parseLong(telling[1]);
+        if (aantal <= MAX_KNOPEN) {
+          assertEquals(type + " " + velden[0].trim() + " D" + diepte,
+                       aantal, perft.perft(fen, diepte));
+        } else {
+          overgeslagen++;
+        }
+      }
+    }
+
+    if (overgeslagen > 0) {
+      Logger.getLogger(PerftTest.class.getName())
+            .info(MessageFormat.format(
+                "{0} {1}: {2} dieptes met meer dan {3,number,#} knopen"
+                    + " overgeslagen.",
+                type, bestand, overgeslagen, MAX_KNOPEN));
+    }
+  }
+
+  @Test
+  public void testBitbord() throws FenException, IOException {
+    controleer(CaissaConstants.Generatortype.BITBORD);
+  }
+
+  @Test
+  public void testBitbord960() throws FenException, IOException {
+    controleer(CaissaConstants.Generatortype.BITBORD,
+               TestConstants.BST_PERFT960_EPD);
+  }
+
+  @Test
+  public void testDiep() throws FenException {
+    for (var type : CaissaConstants.Generatortype.values()) {
+      var perft = new Perft(type);
+
+      assertEquals(type + " Kiwipete",
+                   97862L, perft.perft(new FEN(KIWIPETE), 3));
+      // De koning rokeert over een toren heen.
+      assertEquals(type + " CAca", 201143L,
+                   perft.perft(new FEN("rkrnnqbb/pppppppp/8/8/8/8/PPPPPPPP/"
+                                       + "RKRNNQBB w CAca - 0 1"), 4));
+      assertEquals(type + " hf", 382958L,
+                   perft.perft(new FEN("qbbnnrkr/2pp2pp/p7/1p2pp2/8/P3PP2/"
+                                       + "1PPP1KPP/QBBNNR1R w hf - 0 9"), 4));
+      // En passant met de pion gepend op de rij.
+      assertEquals(type + " en passant", 1440467L,
+                   perft.perft(new FEN("8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1"),
+                               6));
+    }
+  }
+
+  @Test
+  public void testDiepte0() throws FenException {
+    assertEquals(1L, new Perft().perft(new FEN(), 0));
+  }
+
+  @Test
+  public void testDivide() throws FenException {
+    var perft   = new Perft();
+    var divide  = perft.divide(new FEN(BEGINSTELLING), 3);
+
+    assertEquals(20, divide.size());
+    assertEquals(Long.valueOf(600L), divide.get("e2e4"));
+    assertEquals(Long.valueOf(440L), divide.get("g1f3"));
+    assertEquals(8902L, perft.getKnopen());
+    assertEquals(8902L,
+                 divide.values().stream().mapToLong(Long::longValue).sum());
+  }
+
+  @Test
+  public void testDividePromotie() throws FenException {
+    var divide  = new Perft().divide(new FEN("4k3/1P6/8/8/8/8/K7/8 w - - 0 1"),
+                                     1);
+
+    assertTrue(divide.containsKey("b7b8q"));
+    assertTrue(divide.containsKey("b7b8n"));
+    assertEquals(Long.valueOf(1L), divide.get("b7b8r"));
+  }
+
+  @Test
+  public void testKnopenPerSeconde() throws FenException {
+    var perft = new Perft(CaissaConstants.Generatortype.MAILBOX);
+
+    assertEquals(0L, perft.getKnopenPerSeconde());
+    assertEquals(8902L, perft.perft(new FEN(), 3));
+    assertEquals(8902L, perft.getKnopen());
+    assertTrue(perft.getKnopenPerSeconde() > 0L);
+    assertTrue(perft.getTijd() >= 0L);
+    assertEquals(CaissaConstants.Generatortype.MAILBOX, perft.getType());
+  }
+
+  @Test
+  public void testMailbox() throws FenException, IOException {
+    controleer(CaissaConstants.Generatortype.MAILBOX);
+  }
+
+  @Test
+  public void testMailbox960() throws FenException, IOException {
+    controleer(CaissaConstants.Generatortype.MAILBOX,
+               TestConstants.BST_PERFT960_EPD);
+  }
+
+  @Test
+  public void testPerfttabel() throws FenException {
+    var tabel = new Perfttabel(1L << 20);
+    var perft = new Perft(CaissaConstants.Generatortype.BITBORD, tabel);
+    var fen   = new FEN(BEGINSTELLING);
+
+    assertEquals(197281L, perft.perft(fen, 4));
+    assertEquals(0L, tabel.getTreffers());
+    assertEquals(197281L, perft.perft(fen, 4));
+    assertTrue(tabel.getTreffers() > 0L);
+    assertEquals(BEGINSTELLING, fen.getFen());
+    assertSame(tabel, perft.getPerfttabel());
+
+    var parallel  =
+        new ParallellePerft(CaissaConstants.Generatortype.BITBORD,
+                            ForkJoinPool.commonPool(), 2,
+                            new Perfttabel(1L << 20,
+                                           CaissaConstants.Vervanging.ALTIJD));
+    assertEquals(4085603L,
+                 parallel.perft(new FEN(KIWIPETE), 4));
+    assertTrue(parallel.getPerfttabel().getTrefkans() > 0.0);
+  }
+
+  @Test
+  public void testParallel() throws FenException, IOException {
+    var pool    = new ForkJoinPool(4);
+    var perft   =
+        new ParallellePerft(CaissaConstants.Generatortype.BITBORD, pool, 2);
+
+    try {
+      for (var regel : leesSuite()) {
+        var velden  = regel.split(";");
+        var fen     = new FEN(velden[0].trim());
+        for (var i = 1; i < velden.length; i++) {
+          var telling = velden[i].trim().split(" ");
+          var diepte  = Integer.parseInt(telling[0].substring(1));
+          var aantal  = Long.parseLong(telling[1]);
+          if (aantal <= MAX_KNOPEN) {
+            assertEquals(velden[0].trim() + " D" + diepte,
+                         aantal, perft.perft(fen, diepte));
+          }
+        }
+      }
+      assertEquals(4, perft.getParallellisme());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testParallelDivide() throws FenException {
+    var fen     = new FEN(BEGINSTELLING);
+    var perft   = new ParallellePerft();
+    var divide  = perft.divide(fen, 4);
+
+    assertEquals(new Perft().divide(fen, 4), divide);
+    assertEquals(197281L, perft.getKnopen());
+    assertEquals(1L, perft.perft(fen, 0));
+    assertEquals(20L, perft.perft(fen, 1));
+  }
+}
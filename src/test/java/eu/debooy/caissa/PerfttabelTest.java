@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.CaissaConstants.Vervanging;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class PerfttabelTest extends TestCase {
+  @Test
+  public void testAltijd() {
+    var tabel = new Perfttabel(16L, Vervanging.ALTIJD);
+
+    tabel.bewaar(1L, 4, 400L);
+    tabel.bewaar(2L, 2, 20L);
+
+    assertEquals(-1L, tabel.zoek(1L, 4));
+    assertEquals(20L, tabel.zoek(2L, 2));
+  }
+
+  @Test
+  public void testDiepte() {
+    var tabel = new Perfttabel(16L, Vervanging.DIEPTE);
+
+    tabel.bewaar(1L, 4, 400L);
+    tabel.bewaar(2L, 2, 20L);
+
+    assertEquals(400L, tabel.zoek(1L, 4));
+    assertEquals(-1L, tabel.zoek(2L, 2));
+  }
+
+  @Test
+  public void testGrootte() {
+    assertEquals(1, new Perfttabel(0L).getGrootte());
+    assertEquals(64, new Perfttabel(1024L).getGrootte());
+    assertEquals(64, new Perfttabel(2047L).getGrootte());
+    assertEquals(Vervanging.DIEPTE, new Perfttabel(1024L).getVervanging());
+  }
+
+  @Test
+  public void testLeeg() {
+    var tabel = new Perfttabel(1024L);
+
+    tabel.bewaar(12345L, 3, 8902L);
+    assertEquals(8902L, tabel.zoek(12345L, 3));
+    tabel.leeg();
+
+    assertEquals(-1L, tabel.zoek(12345L, 3));
+    assertEquals(1L, tabel.getVragen());
+    assertEquals(0L, tabel.getTreffers());
+  }
+
+  @Test
+  public void testZoek() {
+    var tabel = new Perfttabel(1024L);
+
+    assertEquals(0.0, tabel.getTrefkans());
+    tabel.bewaar(12345L, 3, 8902L);
+
+    assertEquals(8902L, tabel.zoek(12345L, 3));
+    assertEquals(-1L, tabel.zoek(12345L, 2));
+    assertEquals(-1L, tabel.zoek(54321L, 3));
+    assertEquals(3L, tabel.getVragen());
+    assertEquals(1L, tabel.getTreffers());
+    assertEquals(1.0 / 3, tabel.getTrefkans(), 1e-9);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.exception.BestandException;
+import eu.debooy.doosutils.test.BatchTest;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class PgnlezerTest extends BatchTest {
+  protected static final  ClassLoader CLASSLOADER =
+      PgnlezerTest.class.getClassLoader();
+
+  private static final  String  BESTAND = getTemp() + File.separator
+                                          + TestConstants.BST_DEFAULT_PGN;
+
+  @AfterClass
+  public static void afterClass() {
+    verwijderBestanden(getTemp() + File.separator,
+                       new String[] {TestConstants.BST_DEFAULT_PGN});
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws BestandException {
+    try {
+      kopieerBestand(CLASSLOADER, TestConstants.BST_DEFAULT_PGN, BESTAND);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  @Test
+  public void testGelijkAanLaadPgnBestand() throws PgnException {
+    var verwacht  = new ArrayList<>(CaissaUtils.laadPgnBestand(BESTAND));
+    var partijen  = new ArrayList<PGN>();
+
+    try (var lezer = new Pgnlezer(BESTAND)) {
+      while (lezer.volgende()) {
+        partijen.add(lezer.getPartij());
+        assertEquals(partijen.size(), lezer.getAantal());
+      }
+      assertNull(lezer.getPartij());
+    }
+
+    assertEquals(verwacht.size(), partijen.size());
+    for (var i = 0; i < verwacht.size(); i++) {
+      assertEquals(verwacht.get(i).toString(), partijen.get(i).toString());
+    }
+  }
+
+  @Test
+  public void testGeenUitslag() throws PgnException {
+    var partij  = String.join("\n",
+                              "[Event \"-\"]", "[Site \"-\"]",
+                              "[Date \"????.??.??\"]", "[Round \"-\"]",
+                              "[White \"Speler, Carol\"]",
+                              "[Black \"Speler, Dave\"]",
+                              "[Result \"1-0\"]", "", "1.e4 e5");
+    var lezer   = new Pgnlezer(partij + "\n" + partij + " 1-0\n" + partij,
+                               0);
+
+    try {
+      lezer.volgende();
+      fail("Er had een PgnException moeten wezen.");
+    } catch (PgnException e) {
+      assertTrue(e.getLocalizedMessage().contains("10"));
+    }
+    assertEquals(1, lezer.getBeginregel());
+
+    assertTrue(lezer.volgende());
+    assertEquals(10, lezer.getBeginregel());
+    assertEquals("1.e4 e5", lezer.getPartij().getZetten());
+
+    try {
+      lezer.volgende();
+      fail("Er had een PgnException moeten wezen.");
+    } catch (PgnException e) {
+      assertTrue(e.getLocalizedMessage().contains("28"));
+    }
+    assertEquals(19, lezer.getBeginregel());
+
+    assertFalse(lezer.volgende());
+    assertEquals(1, lezer.getAantal());
+  }
+
+  @Test
+  public void testRegelnummer() throws PgnException {
+    try (var lezer = new Pgnlezer(BESTAND)) {
+      var vorige  = 0;
+      while (lezer.volgende()) {
+        assertTrue(lezer.getBeginregel() > vorige);
+        assertTrue(lezer.getRegelnummer() > lezer.getBeginregel());
+        vorige    = lezer.getRegelnummer();
+      }
+      assertTrue(lezer.getAantal() > 1);
+    }
+
+    try (var lezer = new Pgnlezer(BESTAND)) {
+      assertTrue(lezer.volgende());
+      assertEquals(1, lezer.getBeginregel());
+      assertEquals(TestConstants.ALICE,
+                   lezer.getPartij().getTag(PGN.PGNTAG_WHITE));
+    }
+  }
+
+  @Test
+  public void testStoppen() throws PgnException {
+    var lezer = new Pgnlezer(BESTAND);
+
+    assertTrue(lezer.volgende());
+    assertTrue(lezer.volgende());
+    lezer.close();
+
+    assertEquals(2, lezer.getAantal());
+    assertNotNull(lezer.getPartij());
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.CaissaConstants.Pgntoken;
+import eu.debooy.caissa.exceptions.PgnException;
+import eu.debooy.doosutils.exception.BestandException;
+import eu.debooy.doosutils.test.BatchTest;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class PgntokenizerTest extends BatchTest {
+  protected static final  ClassLoader CLASSLOADER =
+      PgntokenizerTest.class.getClassLoader();
+
+  private static final  String  BESTAND = getTemp() + File.separator
+                                          + TestConstants.BST_DEFAULT_PGN;
+
+  @AfterClass
+  public static void afterClass() {
+    verwijderBestanden(getTemp() + File.separator,
+                       new String[] {TestConstants.BST_DEFAULT_PGN});
+  }
+
+  @BeforeClass
+  public static void beforeClass() throws BestandException {
+    resourceBundle  = ResourceBundle.getBundle(TestConstants.RESOURCEBUNDLE,
+                                               Locale.getDefault());
+    try {
+      kopieerBestand(CLASSLOADER, TestConstants.BST_DEFAULT_PGN, BESTAND);
+    } catch (IOException e) {
+      throw new BestandException(e);
+    }
+  }
+
+  private static Pgntokenizer getTokenizer(String pgn) {
+    return new Pgntokenizer(pgn.getBytes(StandardCharsets.UTF_8),
+                           StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testBestand() throws IOException, PgnException {
+    var partijen  = new ArrayList<>(CaissaUtils.laadPgnBestand(BESTAND));
+    var tokenizer = new Pgntokenizer(Path.of(BESTAND),
+                                     StandardCharsets.UTF_8);
+    var diepte    = 0;
+    var partij    = 0;
+    var zetten    = 0;
+
+    while (tokenizer.volgende() != Pgntoken.EINDE) {
+      switch (tokenizer.getSoort()) {
+        case TAG -> {
+          if (tokenizer.isNaam(PGN.PGNTAG_WHITE)) {
+            assertEquals(partijen.get(partij).getTag(PGN.PGNTAG_WHITE),
+                         tokenizer.getWaarde());
+          }
+        }
+        case VARIANTBEGIN -> diepte++;
+        case VARIANTEINDE -> diepte--;
+        case ZET -> {
+          if (diepte == 0) {
+            zetten++;
+          }
+        }
+        case UITSLAG -> {
+          var pgn = partijen.get(partij);
+          assertEquals(pgn.getTag(PGN.PGNTAG_RESULT), tokenizer.getTekst());
+          assertEquals(pgn.getAantalZettenWit() + pgn.getAantalZettenZwart(),
+                       zetten);
+          partij++;
+          zetten  = 0;
+        }
+        default -> assertTrue(tokenizer.getEinde() >= tokenizer.getBegin());
+      }
+    }
+
+    assertEquals(partijen.size(), partij);
+  }
+
+  @Test
+  public void testCommentaar() throws PgnException {
+    var tokenizer = getTokenizer("1.e4 {Beste\nzet} e5 ; regel\n% weg\n"
+                                 + "2.Nf3 $1 (2.f4 $2) *");
+    List<String>  tekst = new ArrayList<>();
+    List<Integer> regel = new ArrayList<>();
+
+    while (tokenizer.volgende() != Pgntoken.EINDE) {
+      tekst.add(tokenizer.getSoort() + ":" + tokenizer.getTekst());
+      regel.add(tokenizer.getRegelnummer());
+    }
+
+    assertEquals(List.of("ZETNUMMER:1", "ZET:e4", "COMMENTAAR:Beste\nzet",
+                         "ZET:e5", "COMMENTAAR: regel", "ZETNUMMER:2",
+                         "ZET:Nf3", "NAG:1", "VARIANTBEGIN:(",
+                         "ZETNUMMER:2", "ZET:f4", "NAG:2", "VARIANTEINDE:)",
+                         "UITSLAG:*"),
+                 tekst);
+    assertEquals(List.of(1, 1, 1, 2, 2, 4, 4, 4, 4, 4, 4, 4, 4, 4), regel);
+  }
+
+  @Test
+  public void testFouteTag() {
+    try {
+      getTokenizer("\n[Event geen waarde]").volgende();
+      fail("Er had een PgnException moeten wezen.");
+    } catch (PgnException e) {
+      assertTrue(e.getMessage().contains("2"));
+    }
+  }
+
+  @Test
+  public void testOngesloten() {
+    var tokenizer = getTokenizer("1.e4 {niet gesloten");
+
+    try {
+      tokenizer.volgende();
+      tokenizer.volgende();
+      tokenizer.volgende();
+      fail("Er had een PgnException moeten wezen.");
+    } catch (PgnException e) {
+      assertEquals(
+          resourceBundle.getString(PGN.ERR_PGN_ONGESLOTEN),
+          e.getMessage());
+    }
+  }
+
+  @Test
+  public void testTag() throws PgnException {
+    var tokenizer = getTokenizer("[Event \"Het \\\"Open\\\" \\\\ toernooi\"]\n"
+                                 + "[ Site  \"-\" ]");
+
+    assertEquals(Pgntoken.TAG, tokenizer.volgende());
+    assertTrue(tokenizer.isNaam(PGN.PGNTAG_EVENT));
+    assertFalse(tokenizer.isNaam(PGN.PGNTAG_SITE));
+    assertEquals("Het \"Open\" \\ toernooi", tokenizer.getWaarde());
+    assertEquals(Pgntoken.TAG, tokenizer.volgende());
+    assertEquals(PGN.PGNTAG_SITE, tokenizer.getNaam());
+    assertEquals("-", tokenizer.getWaarde());
+    assertEquals(2, tokenizer.getRegelnummer());
+    assertEquals(Pgntoken.EINDE, tokenizer.volgende());
+    assertEquals(Pgntoken.EINDE, tokenizer.volgende());
+  }
+
+  @Test
+  public void testTekenset() throws PgnException {
+    var tag       = "[White \"Fernández, Ñico\"]";
+    var tokenizer = new Pgntokenizer(tag.getBytes(StandardCharsets.ISO_8859_1),
+                                     StandardCharsets.ISO_8859_1);
+
+    assertEquals(Pgntoken.TAG, tokenizer.volgende());
+    assertEquals("Fernández, Ñico", tokenizer.getWaarde());
+  }
+
+  @Test
+  public void testUitslag() throws PgnException {
+    var tokenizer = getTokenizer("0-0 0-0-0 O-O 1-0 0-1 1/2-1/2 *");
+    List<Pgntoken>  soorten = new ArrayList<>();
+
+    while (tokenizer.volgende() != Pgntoken.EINDE) {
+      soorten.add(tokenizer.getSoort());
+    }
+
+    assertEquals(List.of(Pgntoken.ZET, Pgntoken.ZET, Pgntoken.ZET,
+                         Pgntoken.UITSLAG, Pgntoken.UITSLAG,
+                         Pgntoken.UITSLAG, Pgntoken.UITSLAG),
+                 soorten);
+  }
+}
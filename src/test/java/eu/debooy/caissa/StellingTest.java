@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class StellingTest extends TestCase {
+  private static final  String  KIWIPETE  =
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+  @Test
+  public void testEquals() throws FenException {
+    var stelling  = new FEN(KIWIPETE).getStelling();
+    var zelfde    = new FEN(KIWIPETE).getStelling();
+    var ander     = new FEN(KIWIPETE.replace(" w ", " b ")).getStelling();
+
+    assertEquals(stelling, zelfde);
+    assertEquals(stelling.hashCode(), zelfde.hashCode());
+    assertFalse(stelling.equals(ander));
+    assertFalse(stelling.equals(KIWIPETE));
+  }
+
+  @Test
+  public void testEqualsFenType() throws FenException {
+    var x         =
+        new FEN("bnrbkrqn/pppppppp/8/8/8/8/PPPPPPPP/BNRBKRQN w KQkq - 0 1");
+    var shredder  =
+        new FEN("bnrbkrqn/pppppppp/8/8/8/8/PPPPPPPP/BNRBKRQN w FCfc - 0 1");
+
+    assertEquals(x.getZobrist(), shredder.getZobrist());
+    assertFalse(x.equals(shredder));
+    assertFalse(x.getStelling().equals(shredder.getStelling()));
+    assertEquals(x.getStelling(), x.getStelling());
+  }
+
+  @Test
+  public void testGetters() throws FenException {
+    var stelling  =
+        new FEN("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w Kq e6 0 2")
+            .getStelling();
+
+    assertTrue(stelling.isWitAanZet());
+    assertTrue(stelling.isWitKorteRokade());
+    assertFalse(stelling.isWitLangeRokade());
+    assertFalse(stelling.isZwartKorteRokade());
+    assertTrue(stelling.isZwartLangeRokade());
+    assertEquals(CaissaUtils.externToIntern("e6"),
+                 stelling.getEnPassantVeld());
+    assertEquals(0, stelling.getHalvezetten());
+    assertEquals(2, stelling.getZetnummer());
+    assertEquals(CaissaConstants.KONING, stelling.getStuk(25));
+    assertEquals(-CaissaConstants.PION, stelling.getStuk(65));
+  }
+
+  @Test
+  public void testOnveranderlijk() throws FenException {
+    var fen       = new FEN(KIWIPETE);
+    var stelling  = fen.getStelling();
+
+    fen.doeZet(new BitbordZettengenerator(fen).getZetcodes().get(0));
+    stelling.getBord()[25] = 0;
+    stelling.toFen().doeZet(
+        new BitbordZettengenerator(stelling.toFen()).getZetcodes().get(0));
+
+    assertEquals(KIWIPETE, stelling.toString());
+    assertEquals(CaissaConstants.KONING, stelling.getStuk(25));
+  }
+
+  @Test
+  public void testOmzetten() throws FenException {
+    String[]  stellingen  =
+        {KIWIPETE,
+         "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+         "bnrbkrqn/pppppppp/8/8/8/8/PPPPPPPP/BNRBKRQN w KQkq - 0 1",
+         "4k3/8/8/8/8/8/8/4K3 b - - 12 40"};
+
+    for (var tekst : stellingen) {
+      var fen     = new FEN(tekst);
+      var kopie   = fen.getStelling().toFen();
+
+      assertEquals(tekst, kopie.getFen());
+      assertEquals(fen, kopie);
+      assertEquals(fen.getZobrist(), kopie.getZobrist());
+      assertEquals(new BitbordZettengenerator(fen).getAantalZetten(),
+                   new BitbordZettengenerator(kopie).getAantalZetten());
+    }
+  }
+}
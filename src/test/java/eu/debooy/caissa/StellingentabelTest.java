@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import java.util.HashMap;
+import java.util.Map;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class StellingentabelTest extends TestCase {
+  private static void speel(FEN fen, String zet) throws FenException {
+    var zetten  = new BitbordZettengenerator(fen).getZetcodes();
+    for (var zetcode : zetten.toArray()) {
+      if (Zetcode.getUciNotatie(zetcode).equals(zet)) {
+        fen.doeZet(zetcode);
+        return;
+      }
+    }
+    fail(zet);
+  }
+
+  private static void vul(FEN fen, int diepte, Stellingentabel tabel,
+                          Map<String, Integer> tellingen)
+      throws FenException {
+    tabel.voegToe(fen);
+    tellingen.merge(fen.getKorteFen(), 1, Integer::sum);
+    if (diepte == 0) {
+      return;
+    }
+    var zetten  = new BitbordZettengenerator(fen).getZetcodes();
+    for (var zet : zetten.toArray()) {
+      fen.doeZet(zet);
+      vul(fen, diepte - 1, tabel, tellingen);
+      fen.neemTerug();
+    }
+  }
+
+  @Test
+  public void testHerhaling() throws FenException {
+    var fen     = new FEN();
+    var tabel   = new Stellingentabel();
+    var begin   = tabel.voegToe(fen);
+
+    for (var i = 0; i < 2; i++) {
+      speel(fen, "g1f3");
+      speel(fen, "g8f6");
+      speel(fen, "f3g1");
+      speel(fen, "f6g8");
+      assertEquals(begin, tabel.voegToe(fen));
+    }
+
+    assertEquals(0, begin);
+    assertEquals(3, tabel.getAantal(begin));
+    assertEquals(1, tabel.getGrootte());
+    assertSame(tabel.getKorteFen(begin), tabel.getKorteFen(begin));
+    assertEquals(new FEN().getKorteFen(), tabel.getKorteFen(begin));
+    assertEquals(new FEN().getFen(), tabel.getStelling(begin).toString());
+    assertTrue(tabel.getBespaard() > 0);
+  }
+
+  @Test
+  public void testLeeg() throws FenException {
+    var tabel = new Stellingentabel();
+
+    tabel.voegToe(new FEN());
+    tabel.leeg();
+
+    assertEquals(0, tabel.getGrootte());
+    assertEquals(0, tabel.getToevoegingen());
+    assertEquals(-1, tabel.zoek(new FEN()));
+    try {
+      tabel.getStelling(0);
+      fail("Geen IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+      // Verwacht.
+    }
+  }
+
+  @Test
+  public void testPerft() throws FenException {
+    var fen       = new FEN();
+    var tabel     = new Stellingentabel();
+    Map<String, Integer>  tellingen = new HashMap<>();
+
+    vul(fen, 3, tabel, tellingen);
+
+    assertEquals(tellingen.size(), tabel.getGrootte());
+    assertEquals(1 + 20 + 400 + 8902, tabel.getToevoegingen());
+    for (var id = 0; id < tabel.getGrootte(); id++) {
+      var korteFen  = tabel.getKorteFen(id);
+      assertEquals(korteFen, tellingen.get(korteFen).intValue(),
+                   tabel.getAantal(id));
+      assertEquals(id, tabel.zoek(tabel.getStelling(id).toFen()));
+    }
+    assertTrue(tabel.getGeheugen() > tabel.getGrootte() * 500L);
+  }
+
+  @Test
+  public void testTranspositie() throws FenException {
+    var fen1  = new FEN();
+    var fen2  = new FEN();
+    var tabel = new Stellingentabel();
+
+    speel(fen1, "g1f3");
+    speel(fen1, "g8f6");
+    speel(fen1, "b1c3");
+    speel(fen2, "b1c3");
+    speel(fen2, "g8f6");
+    speel(fen2, "g1f3");
+
+    var id  = tabel.voegToe(fen1);
+    assertEquals(id, tabel.zoek(fen2));
+    assertEquals(id, tabel.voegToe(fen2));
+    assertEquals(2, tabel.getAantal(id));
+
+    speel(fen1, "e7e5");
+    assertEquals(-1, tabel.zoek(fen1));
+  }
+
+  @Test
+  public void testEnPassant() throws FenException {
+    var tabel = new Stellingentabel();
+    var met   = tabel.voegToe(new FEN(
+        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"));
+    var zonder  = tabel.voegToe(new FEN(
+        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1"));
+
+    assertFalse(met == zonder);
+    assertEquals(2, tabel.getGrootte());
+  }
+
+  @Test
+  public void testRokadetorens() throws FenException {
+    var tabel = new Stellingentabel();
+    var fenG  = new FEN("4k3/8/8/8/8/8/8/R3K1RR w G - 0 1");
+    var fenH  = new FEN("4k3/8/8/8/8/8/8/R3K1RR w H - 0 1");
+    var g     = tabel.voegToe(fenG);
+    var h     = tabel.voegToe(fenH);
+
+    assertEquals(fenG.getZobrist(), fenH.getZobrist());
+    assertFalse(g == h);
+    assertEquals(fenG.getKorteFen(), tabel.getKorteFen(g));
+    assertEquals(fenH.getKorteFen(), tabel.getKorteFen(h));
+    assertEquals(h, tabel.zoek(fenH));
+  }
+}
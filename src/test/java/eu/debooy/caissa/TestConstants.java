@@ -27,6 +27,8 @@ public class TestConstants {
   public static final String  BST_EVENT_PGN         = "event.pgn";
   public static final String  BST_PARTIJ_PGN        = "partij.pgn";
   public static final String  BST_PARTIJ_NL_PGN     = "partij_nl.pgn";
+  public static final String  BST_PERFT_EPD         = "perft.epd";
+  public static final String  BST_PERFT960_EPD      = "perft960.epd";
   public static final String  BST_TEST_PGN          = "test.pgn";
 
   public static final String  RESOURCEBUNDLE  = "CaissaCore";
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.exceptions.FenException;
+import eu.debooy.caissa.exceptions.ZetException;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class ZetcodeTest extends TestCase {
+  @Test
+  public void testEnPassant() {
+    var zet = Zetcode.maak(65, 76, CaissaConstants.PION, CaissaConstants.PION,
+                           0, Zetcode.EN_PASSANT);
+
+    assertTrue(Zetcode.isEnPassant(zet));
+    assertTrue(Zetcode.isSlagzet(zet));
+    assertFalse(Zetcode.isRokade(zet));
+    assertEquals("e5f6", Zetcode.getUciNotatie(zet));
+    assertTrue(Zetcode.toZet(zet).isEp());
+  }
+
+  @Test
+  public void testMaak() {
+    var zet = Zetcode.maak(82, 91, CaissaConstants.PION, CaissaConstants.TOREN,
+                           CaissaConstants.DAME, 0);
+
+    assertEquals(82, Zetcode.getVan(zet));
+    assertEquals(91, Zetcode.getNaar(zet));
+    assertEquals(CaissaConstants.PION, Zetcode.getStuk(zet));
+    assertEquals(CaissaConstants.TOREN, Zetcode.getGeslagen(zet));
+    assertEquals(CaissaConstants.DAME, Zetcode.getPromotie(zet));
+    assertTrue(Zetcode.isSlagzet(zet));
+    assertEquals("b7a8q", Zetcode.getUciNotatie(zet));
+  }
+
+  @Test
+  public void testRokade() {
+    var kort  = Zetcode.maak(25, 27, CaissaConstants.KONING, 0, 0,
+                             Zetcode.KORTE_ROKADE);
+    var lang  = Zetcode.maak(95, 93, CaissaConstants.KONING, 0, 0,
+                             Zetcode.LANGE_ROKADE);
+
+    assertTrue(Zetcode.isRokade(kort));
+    assertTrue(Zetcode.isRokade(lang));
+    assertEquals("O-O", Zetcode.toZet(kort).getLangeNotatie());
+    assertEquals("O-O-O", Zetcode.toZet(lang).getLangeNotatie());
+  }
+
+  @Test
+  public void testToZet() throws ZetException {
+    var zet = Zetcode.toZet(Zetcode.maak(27, 46, CaissaConstants.PAARD, 0, 0,
+                                         0));
+
+    assertEquals(new Zet('N', 27, 46), zet);
+    assertEquals('N', zet.getStuk());
+    assertFalse(zet.isSlagzet());
+  }
+
+  @Test
+  public void testVanZet() throws ZetException {
+    var zet = new Zet(82, 91, 'N');
+    zet.setSlagzet(true);
+    var code  = Zetcode.maak(zet, CaissaConstants.TOREN);
+
+    assertEquals(CaissaConstants.PAARD, Zetcode.getPromotie(code));
+    assertEquals(CaissaConstants.PION, Zetcode.getStuk(code));
+    assertEquals(zet, Zetcode.toZet(code));
+  }
+
+  @Test
+  public void testZettenlijst() {
+    var lijst = new Zettenlijst(1);
+
+    assertTrue(lijst.isEmpty());
+    for (var i = 0; i < 100; i++) {
+      lijst.add(i);
+    }
+    assertEquals(100, lijst.size());
+    assertEquals(42, lijst.get(42));
+    assertEquals(100, lijst.toArray().length);
+    lijst.clear();
+    assertTrue(lijst.isEmpty());
+
+    try {
+      lijst.get(0);
+      fail("Er had een IndexOutOfBoundsException moeten zijn.");
+    } catch (IndexOutOfBoundsException e) {
+      // Verwacht.
+    }
+  }
+
+  @Test
+  public void testZetcodesGenerator() throws FenException {
+    var fen     = new FEN(
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+    var bitbord = new BitbordZettengenerator(fen).getZetcodes();
+    var mailbox = new Zettengenerator(fen).getZetcodes();
+
+    assertEquals(48, bitbord.size());
+    assertEquals(48, mailbox.size());
+    for (var i = 0; i < bitbord.size(); i++) {
+      fen.doeZet(bitbord.get(i));
+      assertEquals(new FEN(fen.getFen()).getZobrist(), fen.getZobrist());
+      fen.neemTerug();
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 Marco de Booij
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * you may not use this work except in compliance with the Licence. You may
+ * obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package eu.debooy.caissa;
+
+import eu.debooy.caissa.CaissaConstants.Zetfase;
+import eu.debooy.caissa.exceptions.FenException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+
+/**
+ * @author Marco de Booij
+ */
+public class ZettenstroomTest extends TestCase {
+  private static final  String[]  STELLINGEN  = {
+    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+    "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+    "8/8/8/K2pP2r/8/8/8/7k w - d6 0 1"
+  };
+
+  @Test
+  public void testFasen() throws FenException {
+    var fen       = new FEN("4k3/1P6/8/3p4/4P3/8/8/R3K3 w Q - 0 1");
+    var generator = new BitbordZettengenerator(fen);
+    var stroom    = new Zettenstroom(fen);
+
+    assertNull(stroom.getFase());
+    stroom.nextInt();
+    assertEquals(Zetfase.SLAGEN, stroom.getFase());
+    while (stroom.hasNext()) {
+      var zet = stroom.nextInt();
+      switch (stroom.getFase()) {
+        case SLAGEN:
+          assertTrue(Zetcode.isSlagzet(zet)
+                     || Zetcode.getPromotie(zet) != 0);
+          break;
+        case SCHAAK:
+          assertTrue(generator.geeftSchaak(zet));
+          break;
+        default:
+          assertFalse(Zetcode.isSlagzet(zet));
+          assertEquals(0, Zetcode.getPromotie(zet));
+          assertFalse(generator.geeftSchaak(zet));
+          break;
+      }
+    }
+    assertEquals(Zetfase.STIL, stroom.getFase());
+  }
+
+  @Test
+  public void testGeenZetten() throws FenException {
+    var stroom  = new Zettenstroom(new FEN("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+
+    assertFalse(stroom.hasNext());
+    try {
+      stroom.nextInt();
+      fail("Er had een NoSuchElementException moeten zijn.");
+    } catch (NoSuchElementException e) {
+      assertEquals(Zetfase.STIL, stroom.getFase());
+    }
+  }
+
+  @Test
+  public void testGelijkAanZettengenerator() throws FenException {
+    for (var stelling : STELLINGEN) {
+      var fen       = new FEN(stelling);
+      var verwacht  = new BitbordZettengenerator(fen).getZetcodes().toArray();
+      var lijst     = new Zettenlijst();
+      var stroom    = new Zettenstroom(fen);
+      while (stroom.hasNext()) {
+        lijst.add(stroom.nextInt());
+      }
+      var zetten    = lijst.toArray();
+
+      Arrays.sort(verwacht);
+      Arrays.sort(zetten);
+      assertTrue(stelling, Arrays.equals(verwacht, zetten));
+    }
+  }
+
+  @Test
+  public void testSlagenEerst() throws FenException {
+    var stroom  = new Zettenstroom(new FEN(STELLINGEN[1]));
+    var slagen  = true;
+
+    while (stroom.hasNext()) {
+      var zet = stroom.nextInt();
+      if (Zetcode.isSlagzet(zet)) {
+        assertTrue(slagen);
+      } else {
+        slagen  = false;
+      }
+    }
+  }
+
+  @Test
+  public void testSlagenGeordend() throws FenException {
+    for (var stelling : STELLINGEN) {
+      var fen       = new FEN(stelling);
+      var generator = new BitbordZettengenerator(fen);
+      var stroom    = new Zettenstroom(fen);
+      var vorige    = Integer.MAX_VALUE;
+      while (stroom.hasNext()) {
+        var zet = stroom.nextInt();
+        if (stroom.getFase() != Zetfase.SLAGEN) {
+          break;
+        }
+        var waarde  = generator.getRuilwaarde(zet);
+        assertTrue(stelling, waarde <= vorige);
+        vorige      = waarde;
+      }
+    }
+  }
+}